@@ -0,0 +1,46 @@
+-- Benchmark for the trigram gov/category name search (not part of the init scripts).
+-- Seeds 20k govs and 200k categories inside a transaction, prints plans and timings, then rolls back.
+-- Usage: docker compose exec -T postgres psql -U <user> -d kafu < postgres/bench/trgm-name-search.sql
+
+\timing on
+BEGIN;
+
+INSERT INTO Gov (id, name, email)
+SELECT 1000000 + g,
+       (ARRAY['Ministry of Health', 'Ministry of Education', 'Ministry of Transport', 'وزارة الصحة', 'وزارة التربية', 'Wizarat al-Siha'])[1 + g % 6]
+           || ' ' || md5(g::text),
+       'bench' || g || '@example.com'
+FROM generate_series(1, 20000) g;
+
+INSERT INTO Problem_Category (id, name, gov_id)
+SELECT 1000000 + c,
+       (ARRAY['Roads', 'Water supply', 'Electricity', 'طرق', 'مياه', 'Schools'])[1 + c % 6] || ' ' || left(md5(c::text), 8),
+       1000000 + 1 + c % 20000
+FROM generate_series(1, 200000) c;
+
+ANALYZE Gov;
+ANALYZE Problem_Category;
+
+-- typo in the gov name
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT pc.id, pc.name
+FROM Problem_Category pc JOIN Gov g ON g.id = pc.gov_id
+WHERE lower(g.name) LIKE ('%' || lower('ministery of helth') || '%') OR lower(g.name) %> lower('ministery of helth')
+ORDER BY word_similarity(lower('ministery of helth'), lower(g.name)) DESC, pc.id
+LIMIT 20;
+
+-- transliteration variant of the category name
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT pc.id, pc.name
+FROM Problem_Category pc
+WHERE lower(pc.name) LIKE ('%' || lower('electricty') || '%') OR lower(pc.name) %> lower('electricty')
+ORDER BY word_similarity(lower('electricty'), lower(pc.name)) DESC, pc.id
+LIMIT 20;
+
+-- the previous LIKE-only predicate, for comparison
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT pc.id, pc.name
+FROM Problem_Category pc
+WHERE lower(pc.name) LIKE '%electricty%';
+
+ROLLBACK;
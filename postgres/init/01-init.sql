@@ -10,14 +10,20 @@ $$;
 -- Switch to kafu database
 \c kafu;
 
+-- trigram indexes for fuzzy gov and category name search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- 1. Address Table
 CREATE TABLE Address (
     id bigint PRIMARY KEY,
     latitude DECIMAL(9, 6) NOT NULL,
     longitude DECIMAL(9, 6) NOT NULL,
     description varchar(255) NOT NULL,
-    city VARCHAR(50) NOT NULL
+    city VARCHAR(50) NOT NULL,
+    -- "C" collation so geohash prefix ranges use plain byte order in the index
+    geohash VARCHAR(12) COLLATE "C"
 );
+CREATE INDEX idx_address_geohash ON Address (geohash);
 
 -- 2. Gov Table (Government Entity)
 CREATE TABLE Gov (
@@ -30,11 +36,12 @@ CREATE TABLE Gov (
     parent_gov_id bigint,
     FOREIGN KEY (address_id) REFERENCES Address(id)
 );
+CREATE INDEX idx_gov_name_trgm ON Gov USING GIN (lower(name) gin_trgm_ops);
 
 -- 3. User Table
 CREATE TABLE Users (
     id bigint PRIMARY KEY,
-    keycloak_id VARCHAR(50),
+    keycloak_id VARCHAR(50) UNIQUE,
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
@@ -61,6 +68,7 @@ CREATE TABLE Problem_Category (
     gov_id bigint NOT NULL,
     FOREIGN KEY (gov_id) REFERENCES Gov(id)
 );
+CREATE INDEX idx_problem_category_name_trgm ON Problem_Category USING GIN (lower(name) gin_trgm_ops);
 
 -- 5. Problem Table
 CREATE TABLE Problem (
@@ -77,11 +85,24 @@ CREATE TABLE Problem (
     address_id bigint NOT NULL,
 	category_id bigint NOT NULL,
     status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING_APPROVAL', 'APPROVED', 'REJECTED','PENDING_CONRIBUTIONS','PENDING_FUNDING','WORK_IN_PROGRESS','RESOLVED')),
+    version bigint NOT NULL DEFAULT 0,
+    -- title and description indexed under both the English and Arabic configurations; title weighs more in ts_rank
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', title), 'A') ||
+        setweight(to_tsvector('arabic', title), 'A') ||
+        setweight(to_tsvector('english', description), 'B') ||
+        setweight(to_tsvector('arabic', description), 'B')
+    ) STORED,
     FOREIGN KEY (submitted_by_user_id) REFERENCES Users(id),
     FOREIGN KEY (approved_by_user_id) REFERENCES Users(id),
     FOREIGN KEY (address_id) REFERENCES Address(id),
 	FOREIGN KEY (category_id) REFERENCES Problem_Category(id)
 );
+CREATE INDEX idx_problem_search_vector ON Problem USING GIN (search_vector);
+-- keyset pagination over (submission_date desc, id desc): public search, /problems/me and the /problems/real feed
+CREATE INDEX idx_problem_submission ON Problem (submission_date DESC, id DESC);
+CREATE INDEX idx_problem_user_submission ON Problem (submitted_by_user_id, submission_date DESC, id DESC);
+CREATE INDEX idx_problem_real_submission ON Problem (submission_date DESC, id DESC) WHERE is_real;
 
 -- 6. ProblemPhoto Table
 CREATE TABLE Problem_Photo (
@@ -108,6 +129,7 @@ CREATE TABLE Solution (
     problem_id bigint NOT NULL,
     proposed_by_user_id bigint NOT NULL,
     accepted_by_user_id bigint,
+    version bigint NOT NULL DEFAULT 0,
     FOREIGN KEY (problem_id) REFERENCES Problem(id),
     FOREIGN KEY (proposed_by_user_id) REFERENCES Users(id),
     FOREIGN KEY (accepted_by_user_id) REFERENCES Users(id)
@@ -122,10 +144,11 @@ CREATE TABLE Donation (
     currency VARCHAR(3) NOT NULL DEFAULT 'USD',
     payment_method VARCHAR(20) NOT NULL CHECK (payment_method IN ('STRIPE')),
     payment_transaction_id VARCHAR(255),
+    payment_session_url TEXT,
     status VARCHAR(20) NOT NULL CHECK (status IN ('CREATED', 'SUCCESS','FAILED')),
     is_anonymous BOOLEAN NOT NULL DEFAULT FALSE,
     donation_date TIMESTAMP NOT NULL,
-    idempotency_key VARCHAR(255),
+    idempotency_key VARCHAR(255) UNIQUE,
     FOREIGN KEY (problem_id) REFERENCES Problem(id),
     FOREIGN KEY (donor_id) REFERENCES Users(id)
 );
@@ -144,6 +167,79 @@ CREATE TABLE Problem_Progress (
 
 ALTER TABLE problem_photo ADD CONSTRAINT fk_progress_id FOREIGN KEY (progress_id) REFERENCES Problem_Progress(id);
 
+-- 10. UserRole Table (local mirror of Keycloak client roles)
+CREATE TABLE User_Role (
+    user_id bigint NOT NULL,
+    role VARCHAR(50) NOT NULL,
+    PRIMARY KEY (user_id, role),
+    FOREIGN KEY (user_id) REFERENCES Users(id)
+);
+CREATE INDEX idx_user_role_role ON User_Role (role, user_id);
+
+-- 11. UserDeletionTask Table (outbox for Keycloak account removal)
+CREATE TABLE User_Deletion_Task (
+    id bigint PRIMARY KEY,
+    user_id bigint NOT NULL,
+    keycloak_id VARCHAR(50) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1024),
+    created_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES Users(id)
+);
+CREATE INDEX idx_user_deletion_task_due ON User_Deletion_Task (next_attempt_at) WHERE completed_at IS NULL;
+CREATE INDEX idx_user_deletion_task_open ON User_Deletion_Task (keycloak_id) WHERE completed_at IS NULL;
+
+-- 12. Problem map grid: problem counts per geohash cell and status, maintained by ProblemService
+CREATE TABLE Problem_Geo_Cell (
+    precision SMALLINT NOT NULL,
+    cell VARCHAR(12) COLLATE "C" NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    stripe SMALLINT NOT NULL DEFAULT 0,
+    problem_count INT NOT NULL,
+    latitude_sum DOUBLE PRECISION NOT NULL,
+    longitude_sum DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (precision, cell, status, stripe)
+);
+
+-- 13. Moderation claims: leases on PENDING_APPROVAL problems handed out by POST /problems/moderation/claim
+CREATE TABLE Problem_Moderation_Claim (
+    problem_id bigint PRIMARY KEY,
+    moderator_id bigint NOT NULL,
+    lease_until TIMESTAMP NOT NULL,
+    FOREIGN KEY (problem_id) REFERENCES Problem(id) ON DELETE CASCADE,
+    FOREIGN KEY (moderator_id) REFERENCES Users(id)
+);
+-- the claim query walks pending problems oldest first
+CREATE INDEX idx_problem_pending_submission ON Problem (submission_date, id) WHERE status = 'PENDING_APPROVAL';
+
+-- 14. Funding totals: successful donations per problem and currency, striped over rows, maintained by DonationService
+CREATE TABLE Problem_Funding (
+    problem_id bigint NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    stripe SMALLINT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL,
+    donation_count bigint NOT NULL,
+    last_donation_at TIMESTAMP,
+    PRIMARY KEY (problem_id, currency, stripe),
+    FOREIGN KEY (problem_id) REFERENCES Problem(id) ON DELETE CASCADE
+);
+
+-- 15. Payment webhook inbox: verified gateway events, applied to donations by PaymentWebhookWorker
+CREATE TABLE Payment_Webhook_Inbox (
+    payment_method VARCHAR(20) NOT NULL,
+    event_id VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    processed_at TIMESTAMP,
+    last_error VARCHAR(1024),
+    PRIMARY KEY (payment_method, event_id)
+);
+CREATE INDEX idx_payment_webhook_inbox_pending ON Payment_Webhook_Inbox (received_at) WHERE processed_at IS NULL;
+
 create sequence address_seq start with 1 increment by 50;
 create sequence donation_seq start with 1 increment by 50;
 create sequence gov_seq start with 1 increment by 50;
@@ -152,4 +248,5 @@ create sequence problem_photo_seq start with 1 increment by 50;
 create sequence problem_seq start with 1 increment by 50;
 create sequence solution_seq start with 1 increment by 50;
 create sequence users_seq start with 1 increment by 50;
-CREATE sequence problem_progress_seq start with 1 increment by 50;
\ No newline at end of file
+CREATE sequence problem_progress_seq start with 1 increment by 50;
+create sequence user_deletion_task_seq start with 1 increment by 50;
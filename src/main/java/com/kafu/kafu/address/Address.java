@@ -24,4 +24,16 @@ public class Address {
     @Column(nullable = false, length = 50)
     @Enumerated(EnumType.STRING)
     private City city;
+
+    // derived from latitude/longitude, indexed for nearby searches
+    @Column(length = 12)
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    public void updateGeohash() {
+        if (latitude != null && longitude != null) {
+            geohash = Geohash.encode(latitude.doubleValue(), longitude.doubleValue(), Geohash.STORED_PRECISION);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.kafu.kafu.address;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/** Fills the geohash of addresses saved before the column existed. New rows get it on save. */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AddressGeohashBackfill {
+    private static final int BATCH_SIZE = 500;
+
+    private final AddressRepository addressRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = 0;
+        List<Address> batch;
+        while (!(batch = addressRepository.findByGeohashIsNull(PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            batch.forEach(Address::updateGeohash);
+            addressRepository.saveAll(batch);
+            updated += batch.size();
+        }
+        if (updated > 0) {
+            log.info("Backfilled geohash for {} addresses", updated);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.kafu.kafu.address;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
+    List<Address> findByGeohashIsNull(Pageable pageable);
 }
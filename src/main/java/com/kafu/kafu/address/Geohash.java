@@ -0,0 +1,117 @@
+package com.kafu.kafu.address;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell cover used to prune radius searches. A geohash prefix is a
+ * lat/lng rectangle, so "all points within these cells" is a set of string range scans on
+ * the {@code address.geohash} index.
+ */
+public final class Geohash {
+    public static final int STORED_PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    // more cells prune tighter but mean more index ranges per query
+    private static final int MAX_COVER_CELLS = 16;
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0, ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Geohash cells that together cover the bounding box of the circle, at the finest precision
+     * that needs no more than {@value #MAX_COVER_CELLS} cells. Points in the circle are always in
+     * one of the cells; the converse needs an exact distance check.
+     */
+    public static Set<String> cover(double latitude, double longitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double dLng = radiusKm / (KM_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        double south = Math.max(latitude - dLat, -90), north = Math.min(latitude + dLat, 90);
+        double west = Math.max(longitude - dLng, -180), east = Math.min(longitude + dLng, 180);
+
+        for (int precision = STORED_PRECISION; precision > 1; precision--) {
+            if (cellCount(south, north, west, east, precision) <= MAX_COVER_CELLS) {
+                return cover(south, north, west, east, precision);
+            }
+        }
+        return cover(south, north, west, east, 1);
+    }
+
+    /** Number of cells of the given precision that {@link #cover(double, double, double, double, int)} returns. */
+    public static long cellCount(double south, double north, double west, double east, int precision) {
+        double cellHeight = cellHeight(precision);
+        double cellWidth = cellWidth(precision);
+        long rows = cellIndex(north, -90, cellHeight) - cellIndex(south, -90, cellHeight) + 1;
+        long cols = cellIndex(east, -180, cellWidth) - cellIndex(west, -180, cellWidth) + 1;
+        return rows * cols;
+    }
+
+    /** All cells of the given precision that intersect the bounding box. */
+    public static Set<String> cover(double south, double north, double west, double east, int precision) {
+        double cellHeight = cellHeight(precision);
+        double cellWidth = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (long row = cellIndex(south, -90, cellHeight); row <= cellIndex(north, -90, cellHeight); row++) {
+            double lat = Math.min(-90 + (row + 0.5) * cellHeight, 90);
+            for (long col = cellIndex(west, -180, cellWidth); col <= cellIndex(east, -180, cellWidth); col++) {
+                double lng = Math.min(-180 + (col + 0.5) * cellWidth, 180);
+                cells.add(encode(lat, lng, precision));
+            }
+        }
+        return cells;
+    }
+
+    /** Smallest string greater than every geohash starting with the prefix, for range scans. */
+    public static String upperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+
+    private static double cellHeight(int precision) {
+        return 180 / Math.pow(2, Math.floor(5 * precision / 2.0));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360 / Math.pow(2, Math.ceil(5 * precision / 2.0));
+    }
+
+    private static long cellIndex(double value, double origin, double cellSize) {
+        return (long) Math.floor((value - origin) / cellSize);
+    }
+}
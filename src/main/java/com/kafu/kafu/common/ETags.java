@@ -0,0 +1,34 @@
+package com.kafu.kafu.common;
+
+/**
+ * Entity versions as HTTP entity tags. A response carries {@code ETag: "<version>"}; a client sends it
+ * back in {@code If-Match} so the write is rejected if the row changed since it was read.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** The version named by an {@code If-Match} header, or null when the header is absent or {@code *}. */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be an entity tag returned by this API");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.kafu.kafu.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a row stream to an output stream as NDJSON (one JSON object per line) or CSV (header row first).
+ * Rows go through a fixed-size buffer, so memory use does not depend on the number of rows.
+ */
+public class ExportWriter<T> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ExportFormat format;
+    private final List<String> header;
+    private final Function<T, List<?>> columns;
+
+    public ExportWriter(ObjectMapper objectMapper, ExportFormat format, List<String> header, Function<T, List<?>> columns) {
+        this.objectMapper = objectMapper;
+        this.format = format;
+        this.header = header;
+        this.columns = columns;
+    }
+
+    /** Writes every row and flushes; returns the number of rows written. The output stream is left open. */
+    public long write(Stream<T> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, header);
+        }
+        long[] count = {0};
+        try {
+            rows.forEach(row -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writeCsvLine(writer, columns.apply(row));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling embedded quotes
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,48 @@
+package com.kafu.kafu.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Result of a fetch-by-id-list endpoint: the found items in request order, plus the
+ * requested ids that do not exist instead of a not-found error per id.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class MultiGetResponse<T> {
+    public static final int MAX_IDS = 100;
+
+    private List<T> items;
+    private List<Long> missingIds;
+
+    /** Drops duplicates, keeping first-seen order, and rejects oversized requests. */
+    public static Long[] distinctIds(List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids per request");
+        }
+        return new LinkedHashSet<>(ids).toArray(Long[]::new);
+    }
+
+    public static <E, T> MultiGetResponse<T> of(List<Long> ids, List<E> found, Function<E, Long> idOf, Function<E, T> mapper) {
+        Map<Long, E> byId = found.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> items = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            E entity = byId.get(id);
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                items.add(mapper.apply(entity));
+            }
+        }
+        return new MultiGetResponse<>(items, missingIds);
+    }
+}
@@ -0,0 +1,28 @@
+package com.kafu.kafu.common;
+
+import java.time.Duration;
+
+/**
+ * Helpers shared by the background workers that retry failed work from an outbox or inbox table.
+ */
+public final class Retries {
+    /** Length of the {@code last_error} columns. */
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private Retries() {
+    }
+
+    /** Delay before the given attempt: {@code initial} doubled per earlier failure, capped at {@code max}. */
+    public static Duration backoff(int attempts, Duration initial, Duration max) {
+        Duration delay = initial.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    /** The message cut to fit a {@code last_error} column. */
+    public static String truncateError(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
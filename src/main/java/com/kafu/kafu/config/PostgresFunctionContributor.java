@@ -0,0 +1,46 @@
+package com.kafu.kafu.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers PostgreSQL operators that JPA criteria cannot express, so specifications can call
+ * them through {@code cb.function(...)}. Registered via META-INF/services.
+ */
+public class PostgresFunctionContributor implements FunctionContributor {
+
+    // substring match or pg_trgm word similarity against lower(column); both served by a gin_trgm_ops index on lower(column)
+    private static final String TRGM_MATCH = "(lower(?1) like ('%' || lower(?2) || '%') or lower(?1) %> lower(?2))";
+
+    // great-circle distance in km between (?1, ?2) and (?3, ?4), in degrees
+    private static final String HAVERSINE_KM = "(12742 * asin(sqrt(power(sin(radians(?3 - ?1) / 2), 2)"
+            + " + cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2))))";
+
+    // one group per facet column, so all facet counts come from a single scan
+    private static final String FACET_GROUPING_SETS = "grouping sets ((?1), (?2), (?3, ?4), (?5, ?6))";
+
+    // the query text is passed twice so each tsquery gets its own bind parameter
+    private static final String TS_QUERY = "(websearch_to_tsquery('english', ?2) || websearch_to_tsquery('arabic', ?3))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match", "(?1 @@ " + TS_QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank", "ts_rank(?1, " + TS_QUERY + ")", types.resolve(StandardBasicTypes.DOUBLE));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "trgm_match", TRGM_MATCH, types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "trgm_rank", "word_similarity(lower(?2), lower(?1))", types.resolve(StandardBasicTypes.DOUBLE));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "haversine_km", HAVERSINE_KM, types.resolve(StandardBasicTypes.DOUBLE));
+        functionContributions.getFunctionRegistry().registerPattern(
+                "facet_grouping_sets", FACET_GROUPING_SETS, types.resolve(StandardBasicTypes.INTEGER));
+        // bit mask of the arguments aggregated away in a row, ?1 being the highest bit
+        functionContributions.getFunctionRegistry().registerPattern(
+                "facet_grouping", "grouping(?1, ?2, ?3, ?4)", types.resolve(StandardBasicTypes.INTEGER));
+    }
+}
@@ -37,6 +37,9 @@ public class Donation {
     @Column(name = "payment_transaction_id")
     private String paymentTransactionId;
 
+    @Column(name = "payment_session_url", columnDefinition = "TEXT")
+    private String paymentSessionUrl;
+
     @Column(nullable = false, length = 20)
     @Enumerated(EnumType.STRING)
     private DonationStatus status;
@@ -47,6 +50,6 @@ public class Donation {
     @Column(name = "donation_date", nullable = false)
     private LocalDateTime donationDate;
 
-    @Column(name = "idempotency_key")
+    @Column(name = "idempotency_key", unique = true)
     private String idempotencyKey;
 }
@@ -1,10 +1,15 @@
 package com.kafu.kafu.donation;
 
+import com.kafu.kafu.common.ExportFormat;
+import com.kafu.kafu.problem.dto.ProblemFundingDTO;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -13,6 +18,8 @@ import java.util.List;
 public class DonationController {
     private final DonationService donationService;
     private final PaymentMediator paymentMediator;
+    private final DonationExportService donationExportService;
+    private final ProblemFundingService problemFundingService;
 
     @GetMapping
     public ResponseEntity<Page<DonationDTO>> findByProblemId(@PathVariable Long problemId,Pageable pageable) {
@@ -24,16 +31,32 @@ public class DonationController {
         return ResponseEntity.ok(donationService.findProblemDonationsForCurrentUser(problemId).stream().map(DonationMapper::toDTO).toList());
     }
 
+    // streamed straight to the response, one row at a time
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long problemId,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"problem-" + problemId + "-donations." + format.name().toLowerCase() + "\"")
+                .body(outputStream -> donationExportService.export(problemId, format, outputStream));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DonationDTO> findById(@PathVariable Long problemId,@PathVariable Long id) {
         return ResponseEntity.ok(DonationMapper.toDTO(donationService.findById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<PaymentSessionResponse> donate(@PathVariable Long problemId,@RequestBody PaymentSessionRequest donationRequest) {
+    public ResponseEntity<PaymentSessionResponse> donate(@PathVariable Long problemId,@Valid @RequestBody PaymentSessionRequest donationRequest) {
         return ResponseEntity.ok(paymentMediator.initiateDonation(problemId , donationRequest));
     }
 
+    // raised so far per currency, read from the maintained totals rather than summed over donations
+    @GetMapping("/public/totals")
+    public ResponseEntity<List<ProblemFundingDTO>> findFunding(@PathVariable Long problemId) {
+        return ResponseEntity.ok(problemFundingService.findByProblemId(problemId));
+    }
+
     @GetMapping("/public")
     public ResponseEntity<Page<PublicDonationDTO>> findPublicDonationsWithStatusSuccess(
             @PathVariable Long problemId,
@@ -0,0 +1,25 @@
+package com.kafu.kafu.donation;
+
+import com.kafu.kafu.payment.PaymentMethod;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Exported donation row. Leaves out payment references and idempotency keys;
+ * {@code donorId} is null for anonymous donations.
+ */
+@Data
+@AllArgsConstructor
+public class DonationExportDTO {
+    private Long id;
+    private Long problemId;
+    private Long donorId;
+    private BigDecimal amount;
+    private String currency;
+    private PaymentMethod paymentMethod;
+    private DonationStatus status;
+    private Boolean isAnonymous;
+    private LocalDateTime donationDate;
+}
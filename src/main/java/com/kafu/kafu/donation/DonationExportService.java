@@ -0,0 +1,38 @@
+package com.kafu.kafu.donation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafu.kafu.common.ExportFormat;
+import com.kafu.kafu.common.ExportWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class DonationExportService {
+    private static final List<String> CSV_HEADER = List.of(
+            "id", "problemId", "donorId", "amount", "currency", "paymentMethod", "status", "isAnonymous", "donationDate");
+
+    private final DonationRepository donationRepository;
+    private final ObjectMapper objectMapper;
+
+    // the transaction keeps the server-side cursor open while rows are written
+    @Transactional(readOnly = true)
+    public long export(Long problemId, ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<DonationExportDTO> rows = donationRepository.streamByProblemId(problemId)) {
+            return new ExportWriter<>(objectMapper, format, CSV_HEADER, DonationExportService::csvColumns)
+                    .write(rows, outputStream);
+        }
+    }
+
+    private static List<?> csvColumns(DonationExportDTO donation) {
+        return Arrays.asList(donation.getId(), donation.getProblemId(), donation.getDonorId(), donation.getAmount(),
+                donation.getCurrency(), donation.getPaymentMethod(), donation.getStatus(), donation.getIsAnonymous(),
+                donation.getDonationDate());
+    }
+}
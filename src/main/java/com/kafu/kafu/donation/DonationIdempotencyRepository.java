@@ -0,0 +1,67 @@
+package com.kafu.kafu.donation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts donations keyed by {@code idempotency_key}. The key is unique, so concurrent retries of
+ * one request store a single donation and all of them get its payment session back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DonationIdempotencyRepository {
+    private static final String INSERT_RETURNING_SQL = """
+        WITH inserted AS (
+            INSERT INTO donation (id, problem_id, donor_id, amount, currency, payment_method, payment_transaction_id,
+                                  payment_session_url, status, is_anonymous, donation_date, idempotency_key)
+            VALUES (nextval('donation_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            RETURNING donor_id, problem_id, payment_transaction_id, payment_session_url
+        )
+        SELECT donor_id, problem_id, payment_transaction_id, payment_session_url FROM inserted
+        UNION ALL
+        SELECT donor_id, problem_id, payment_transaction_id, payment_session_url FROM donation WHERE idempotency_key = ?
+        LIMIT 1
+    """;
+
+    private static final String FIND_SQL = """
+        SELECT donor_id, problem_id, payment_transaction_id, payment_session_url FROM donation WHERE idempotency_key = ?
+    """;
+
+    private static final RowMapper<DonationSession> SESSION_MAPPER = (rs, rowNum) -> new DonationSession(
+            rs.getLong("donor_id"),
+            rs.getLong("problem_id"),
+            rs.getString("payment_transaction_id"),
+            rs.getString("payment_session_url"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the donation unless its idempotency key is taken, in one statement, and returns the
+     * session of whichever donation owns the key.
+     */
+    public DonationSession insertOrGetExisting(Donation donation) {
+        List<DonationSession> sessions = jdbcTemplate.query(INSERT_RETURNING_SQL, SESSION_MAPPER,
+                donation.getProblem().getId(),
+                donation.getDonor().getId(),
+                donation.getAmount(),
+                donation.getCurrency(),
+                donation.getPaymentMethod().name(),
+                donation.getPaymentTransactionId(),
+                donation.getPaymentSessionUrl(),
+                donation.getStatus().name(),
+                donation.getIsAnonymous(),
+                Timestamp.valueOf(donation.getDonationDate()),
+                donation.getIdempotencyKey(),
+                donation.getIdempotencyKey());
+        if (!sessions.isEmpty()) {
+            return sessions.get(0);
+        }
+        // A concurrent insert committed after this statement's snapshot was taken; read it now
+        return jdbcTemplate.queryForObject(FIND_SQL, SESSION_MAPPER, donation.getIdempotencyKey());
+    }
+}
@@ -1,13 +1,19 @@
 package com.kafu.kafu.donation;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, Long> {
@@ -15,7 +21,10 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
     List<Donation> findByDonor_IdAndProblem_Id(Long donorId, Long problemId);
     List<Donation> findByDonor_Id(Long donorId);
     Optional<Donation> findByPaymentTransactionId(String paymentTransactionId);
-    Optional<Donation> findByIdempotencyKey(String idempotencyKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Donation d WHERE d.paymentTransactionId = :paymentTransactionId")
+    Optional<Donation> findForUpdateByPaymentTransactionId(@Param("paymentTransactionId") String paymentTransactionId);
 
     @Query("""
         SELECT new com.kafu.kafu.donation.PublicDonationDTO(
@@ -26,4 +35,20 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
         WHERE d.problem.id = :problemId AND d.isAnonymous = false AND d.status = 'SUCCESS'
     """)
     Page<PublicDonationDTO> findPublicDonationsWithDonorAndStatusSuccess(@Param("problemId") Long problemId, Pageable pageable);
+
+    // rows are constructed from the result set and fetched in batches; consume inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT new com.kafu.kafu.donation.DonationExportDTO(
+            d.id, d.problem.id, CASE WHEN d.isAnonymous = true THEN NULL ELSE d.donor.id END,
+            d.amount, d.currency, d.paymentMethod, d.status, d.isAnonymous, d.donationDate
+        )
+        FROM Donation d
+        WHERE d.problem.id = :problemId
+        ORDER BY d.id
+    """)
+    Stream<DonationExportDTO> streamByProblemId(@Param("problemId") Long problemId);
 }
@@ -9,8 +9,11 @@ import com.kafu.kafu.problem.ProblemService;
 import com.kafu.kafu.user.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,9 @@ public class DonationService {
     private final UserService userService;
     private final ProblemService problemService;
     private final Map<PaymentMethod, PaymentService> paymentServices;
+    private final ProblemFundingService problemFundingService;
+    private final DonationIdempotencyRepository donationIdempotencyRepository;
+    private final DonationSessionCache donationSessionCache;
 
     public Page<Donation> findAll(Pageable pageable) {
         return donationRepository.findAll(pageable);
@@ -48,44 +54,83 @@ public class DonationService {
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.DONATION_NOT_FOUND));
     }
 
-    public void donate(DonationDTO donationDTO) {
+    /**
+     * The session already handed out for this idempotency key, if this instance saw the key recently.
+     * Lets a client retry skip the payment gateway; a miss is settled by {@link #donate}.
+     */
+    public Optional<PaymentSessionResponse> findRecentSession(Long problemId, String idempotencyKey) {
+        return donationSessionCache.get(idempotencyKey)
+                .map(session -> replay(session, problemId, userService.getCurrentUser().getId()));
+    }
+
+    /**
+     * Stores the donation for a new payment session, or returns the session of the donation already
+     * stored under the same idempotency key. No lookup precedes the insert, so concurrent retries
+     * cannot both pass a check and store duplicates.
+     */
+    public PaymentSessionResponse donate(DonationDTO donationDTO, String paymentSessionUrl) {
 
         PaymentService service = paymentServices.get(donationDTO.getPaymentMethod());
         if (service == null) {
             throw new RuntimeException("Unsupported payment method");
         }
 
-        // Check for duplicate order
-        Optional<Donation> existingOrder = donationRepository.findByIdempotencyKey(donationDTO.getIdempotencyKey());
-        if (existingOrder.isPresent()) {
-            throw new RuntimeException("Idempotency Key has been processed before");
-        }
-
-        // Save order to DB
         Donation donation = new Donation();
         donation.setIdempotencyKey(donationDTO.getIdempotencyKey());
         donation.setAmount(donationDTO.getAmount());
         donation.setCurrency(donationDTO.getCurrency());
         donation.setStatus(DonationStatus.CREATED);
         donation.setPaymentTransactionId(donationDTO.getPaymentTransactionId());
+        donation.setPaymentSessionUrl(paymentSessionUrl);
         donation.setPaymentMethod(donationDTO.getPaymentMethod());
         donation.setIsAnonymous(donationDTO.getIsAnonymous());
 
         donation.setProblem(problemService.findById(donationDTO.getProblemId()));
         donation.setDonor(userService.getCurrentUser());
         donation.setDonationDate(LocalDateTime.now());
-        donationRepository.save(donation);
 
+        DonationSession session = donationIdempotencyRepository.insertOrGetExisting(donation);
+        donationSessionCache.put(donation.getIdempotencyKey(), session);
+        return replay(session, donationDTO.getProblemId(), donation.getDonor().getId());
     }
 
+    // a key is only replayable by the donor who used it, for the same problem
+    private PaymentSessionResponse replay(DonationSession session, Long problemId, Long donorId) {
+        if (!session.getDonorId().equals(donorId) || !session.getProblemId().equals(problemId)) {
+            throw new BusinessException(ApplicationErrorEnum.IDEMPOTENCY_KEY_REUSED);
+        }
+        return session.toResponse();
+    }
+
+    /**
+     * Applies a gateway status to the donation. A completed payment is final: later events, which may
+     * arrive out of order from separate webhook batches, never move a donation out of {@code SUCCESS}.
+     * The donation row lock only serializes events for the same donation; funding totals are striped.
+     */
+    @Transactional
     public void updateStatus(WebhookEvent event) {
-        Donation donation = donationRepository.findByPaymentTransactionId(event.getGatewayOrderId())
+        Donation donation = donationRepository.findForUpdateByPaymentTransactionId(event.getGatewayOrderId())
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.DONATION_NOT_FOUND));
+        DonationStatus previous = donation.getStatus();
+        if (previous == DonationStatus.SUCCESS) {
+            return;
+        }
         donation.setStatus(event.getSuccess());
         donationRepository.save(donation);
+        problemFundingService.onStatusChange(donation, previous);
     }
 
     public Page<PublicDonationDTO> findPublicDonationsWithStatusSuccess(Long problemId, Pageable pageable) {
         return donationRepository.findPublicDonationsWithDonorAndStatusSuccess(problemId, pageable);
     }
+
+    public DonationSummaryDTO summarize(Long problemId, int recent) {
+        Pageable latest = PageRequest.of(0, recent, Sort.by(Sort.Order.desc("donationDate")));
+        List<DonationTotalDTO> totals = problemFundingService.findByProblemId(problemId).stream()
+                .map(funding -> new DonationTotalDTO(funding.getCurrency(), funding.getTotalAmount(), funding.getDonationCount()))
+                .toList();
+        return new DonationSummaryDTO(
+                totals,
+                donationRepository.findPublicDonationsWithDonorAndStatusSuccess(problemId, latest).getContent());
+    }
 }
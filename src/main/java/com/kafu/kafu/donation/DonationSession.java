@@ -0,0 +1,21 @@
+package com.kafu.kafu.donation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * What an idempotency key resolved to: the donation's owner and problem, which a replay must match,
+ * and the payment session handed out for it.
+ */
+@Data
+@AllArgsConstructor
+public class DonationSession {
+    private Long donorId;
+    private Long problemId;
+    private String sessionId;
+    private String sessionUrl;
+
+    public PaymentSessionResponse toResponse() {
+        return new PaymentSessionResponse(sessionId, sessionUrl);
+    }
+}
@@ -0,0 +1,39 @@
+package com.kafu.kafu.donation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Idempotency keys this instance recently stored or replayed, so a client retry is answered without
+ * a gateway call or a query. A miss proves nothing; the unique index on {@code idempotency_key}
+ * decides. Hit/miss counters are published under the {@code cache.*} meters with {@code cache=donationSession}.
+ */
+@Component
+public class DonationSessionCache {
+    private final Cache<String, DonationSession> cache;
+
+    public DonationSessionCache(MeterRegistry meterRegistry,
+                                @Value("${donation.idempotency.max-size}") long maxSize,
+                                @Value("${donation.idempotency.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "donationSession");
+    }
+
+    public Optional<DonationSession> get(String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(idempotencyKey));
+    }
+
+    public void put(String idempotencyKey, DonationSession session) {
+        cache.put(idempotencyKey, session);
+    }
+}
@@ -0,0 +1,13 @@
+package com.kafu.kafu.donation;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Successful donation totals per currency plus the most recent public donations of a problem. */
+@Data
+@AllArgsConstructor
+public class DonationSummaryDTO {
+    private List<DonationTotalDTO> totals;
+    private List<PublicDonationDTO> recentDonations;
+}
@@ -0,0 +1,13 @@
+package com.kafu.kafu.donation;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DonationTotalDTO {
+    private String currency;
+    private BigDecimal amount;
+    private Long count;
+}
@@ -2,10 +2,11 @@ package com.kafu.kafu.donation;
 
 import com.kafu.kafu.payment.PaymentMethod;
 import com.kafu.kafu.payment.PaymentService;
-import com.kafu.kafu.payment.WebhookEvent;
+import com.kafu.kafu.payment.WebhookInboxRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -14,6 +15,8 @@ public class PaymentMediator {
 
     private final Map<PaymentMethod, PaymentService> paymentServices;
 
+    private final WebhookInboxRepository webhookInboxRepository;
+
     public PaymentSessionResponse initiateDonation(Long problemId , PaymentSessionRequest request) {
 
         PaymentService paymentService = paymentServices.get(request.getPaymentMethod());
@@ -21,6 +24,12 @@ public class PaymentMediator {
             throw new RuntimeException("Unsupported payment method");
         }
 
+        Optional<PaymentSessionResponse> replayed = donationService.findRecentSession(problemId, request.getIdempotencyKey());
+        if (replayed.isPresent()) {
+            return replayed.get();
+        }
+
+        // the gateway dedupes on the idempotency key too, so a retry missed above gets the same session back
         PaymentSessionResponse paymentSession = paymentService.createPaymentSession(request);
         DonationDTO dto =
         DonationDTO.builder()
@@ -31,8 +40,7 @@ public class PaymentMediator {
                 .paymentMethod(request.getPaymentMethod())
                 .isAnonymous(request.getIsAnonymous())
                 .idempotencyKey(request.getIdempotencyKey()).build();
-        donationService.donate(dto);
-        return paymentSession;
+        return donationService.donate(dto, paymentSession.getSessionUrl());
     }
 
     public void handleWebhookEvent(String payload, Map<String, String> headers,PaymentMethod paymentMethod) {
@@ -40,8 +48,9 @@ public class PaymentMediator {
         if (paymentService == null) {
             throw new RuntimeException("Unsupported payment method");
         }
-        WebhookEvent webhookEvent=paymentService.getEvent(payload,headers);
-        donationService.updateStatus(webhookEvent);
+        // applied later by PaymentWebhookWorker; a redelivered event id is dropped here
+        String eventId = paymentService.verifyEvent(payload, headers);
+        webhookInboxRepository.enqueue(paymentMethod, eventId, payload);
     }
 
 
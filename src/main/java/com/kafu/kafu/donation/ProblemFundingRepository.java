@@ -0,0 +1,83 @@
+package com.kafu.kafu.donation;
+
+import com.kafu.kafu.problem.dto.ProblemFundingDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Per-problem, per-currency totals of successful donations in {@code problem_funding}. Each total is split
+ * over {@value #STRIPES} rows picked by donation id, so concurrent webhooks for one popular problem usually
+ * upsert different rows instead of queueing on the same row lock; reads sum the stripes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemFundingRepository {
+    static final int STRIPES = 8;
+
+    private static final String ADD_SQL = """
+        INSERT INTO problem_funding (problem_id, currency, stripe, total_amount, donation_count, last_donation_at)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (problem_id, currency, stripe) DO UPDATE SET
+            total_amount = problem_funding.total_amount + EXCLUDED.total_amount,
+            donation_count = problem_funding.donation_count + EXCLUDED.donation_count,
+            last_donation_at = GREATEST(problem_funding.last_donation_at, EXCLUDED.last_donation_at)
+    """;
+
+    private static final String FIND_SQL = """
+        SELECT currency, sum(total_amount) AS total_amount, sum(donation_count) AS donation_count,
+               max(last_donation_at) AS last_donation_at
+        FROM problem_funding
+        WHERE problem_id = ?
+        GROUP BY currency
+        HAVING sum(donation_count) > 0
+        ORDER BY currency
+    """;
+
+    private static final String REBUILD_SQL = """
+        INSERT INTO problem_funding (problem_id, currency, stripe, total_amount, donation_count, last_donation_at)
+        SELECT problem_id, currency, 0, sum(amount), count(*), max(donation_date)
+        FROM donation
+        WHERE status = 'SUCCESS'
+        GROUP BY problem_id, currency
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Counts one donation that just became {@code SUCCESS}. */
+    public void add(Donation donation) {
+        jdbcTemplate.update(ADD_SQL,
+                donation.getProblem().getId(),
+                donation.getCurrency(),
+                (int) Math.floorMod(donation.getId(), (long) STRIPES),
+                donation.getAmount(),
+                1,
+                Timestamp.valueOf(donation.getDonationDate()));
+    }
+
+    public List<ProblemFundingDTO> findByProblemId(Long problemId) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> {
+            Timestamp last = rs.getTimestamp("last_donation_at");
+            return new ProblemFundingDTO(
+                    rs.getString("currency"),
+                    rs.getBigDecimal("total_amount"),
+                    rs.getLong("donation_count"),
+                    last != null ? last.toLocalDateTime() : null);
+        }, problemId);
+    }
+
+    /**
+     * Recomputes every total from the donation ledger. This is the only path that corrects a total, e.g. after
+     * a donation row was edited by hand. The lock holds {@link DonationService#updateStatus} until the rebuild
+     * commits, so a donation that succeeds meanwhile is counted by its own {@link #add} and not by the rebuild.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE problem_funding IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM problem_funding");
+        jdbcTemplate.update(REBUILD_SQL);
+    }
+}
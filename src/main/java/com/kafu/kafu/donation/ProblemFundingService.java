@@ -0,0 +1,37 @@
+package com.kafu.kafu.donation;
+
+import com.kafu.kafu.problem.dto.ProblemFundingDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+/**
+ * "Raised so far" per problem, maintained by {@link DonationService#updateStatus} as donations enter
+ * {@code SUCCESS} (which is final), and recomputed from the donation ledger on
+ * {@code donation.funding.rebuild-interval}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProblemFundingService {
+    private final ProblemFundingRepository problemFundingRepository;
+
+    public List<ProblemFundingDTO> findByProblemId(Long problemId) {
+        return problemFundingRepository.findByProblemId(problemId);
+    }
+
+    /** Applies a donation's status change to the totals; must run in the transaction that changed it. */
+    void onStatusChange(Donation donation, DonationStatus previous) {
+        if (previous != DonationStatus.SUCCESS && donation.getStatus() == DonationStatus.SUCCESS) {
+            problemFundingRepository.add(donation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${donation.funding.rebuild-interval}", initialDelayString = "${donation.funding.rebuild-initial-delay}")
+    public void rebuild() {
+        problemFundingRepository.rebuild();
+        log.info("Rebuilt problem funding totals");
+    }
+}
@@ -10,12 +10,18 @@ public enum ApplicationErrorEnum {
     INVALID_PROBLEM_STATUS(HttpStatus.BAD_REQUEST, "INVALID PROBLEM STATUS."),
     REJECTION_REASON_REQUIRED(HttpStatus.BAD_REQUEST, "REJECTION REASON REQUIRED."),
     DONATION_NOT_FOUND(HttpStatus.BAD_REQUEST, "DONATION NOT FOUND."),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY KEY WAS ALREADY USED FOR ANOTHER DONATION."),
     GOV_NOT_FOUND(HttpStatus.BAD_REQUEST, "GOV NOT FOUND."),
     PROBLEM_NOT_FOUND(HttpStatus.BAD_REQUEST, "PROBLEM NOT FOUND."),
     CATEGORY_NOT_FOUND(HttpStatus.BAD_REQUEST, "CATEGORY NOT FOUND."),
     PHOTO_NOT_FOUND(HttpStatus.BAD_REQUEST, "PHOTO NOT FOUND."),
     PROGRESS_NOT_FOUND(HttpStatus.BAD_REQUEST, "PROGRESS NOT FOUND."),
-    SOLUTION_NOT_FOUND(HttpStatus.BAD_REQUEST, "SOLUTION NOT FOUND.")
+    SOLUTION_NOT_FOUND(HttpStatus.BAD_REQUEST, "SOLUTION NOT FOUND."),
+    PROBLEM_STATUS_CHANGED(HttpStatus.CONFLICT, "PROBLEM STATUS WAS CHANGED BY ANOTHER REQUEST."),
+    SOLUTION_STATUS_CHANGED(HttpStatus.CONFLICT, "SOLUTION STATUS WAS CHANGED BY ANOTHER REQUEST."),
+    CONCURRENT_MODIFICATION(HttpStatus.CONFLICT, "RESOURCE WAS CHANGED BY ANOTHER REQUEST. RELOAD AND RETRY."),
+    VERSION_MISMATCH(HttpStatus.PRECONDITION_FAILED, "IF-MATCH DOES NOT MATCH THE CURRENT VERSION."),
+    DUPLICATE_MODERATION_ITEM(HttpStatus.BAD_REQUEST, "PROBLEM APPEARS MORE THAN ONCE IN THE BATCH.")
 
     ;
 
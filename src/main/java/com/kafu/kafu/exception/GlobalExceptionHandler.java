@@ -2,6 +2,7 @@ package com.kafu.kafu.exception;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -30,6 +31,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, exc.getApplicationErrorEnum().getStatus());
     }
 
+    // a versioned UPDATE matched no row: someone else wrote first
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException exc) {
+        ApiErrorResponse error = new ApiErrorResponse();
+        error.setStatus(HttpStatus.CONFLICT.value());
+        error.setMessage(ApplicationErrorEnum.CONCURRENT_MODIFICATION.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiErrorResponse> handleAccessDeniedException(AccessDeniedException exc) {
         ApiErrorResponse error = new ApiErrorResponse();
@@ -1,5 +1,6 @@
 package com.kafu.kafu.gov;
 
+import com.kafu.kafu.common.MultiGetResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,12 @@ public class GovController {
         return ResponseEntity.ok(govService.findAll().stream().map(govService::replaceUrlsWithPresigned).map(GovMapper::toDTO).toList());
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResponse<GovDTO>> findAllByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(MultiGetResponse.of(ids, govService.findAllByIds(ids), Gov::getId,
+                gov -> GovMapper.toDTO(govService.replaceUrlsWithPresigned(gov))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<GovDTO> findById(@PathVariable Long id) {
         Gov gov = govService.findById(id);
@@ -1,11 +1,17 @@
 package com.kafu.kafu.gov;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GovRepository extends JpaRepository<Gov, Long> {
     Optional<Gov> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query(value = "SELECT * FROM gov WHERE id = ANY(:ids)", nativeQuery = true)
+    List<Gov> findAllByIdAny(@Param("ids") Long[] ids);
 }
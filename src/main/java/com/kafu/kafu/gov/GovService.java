@@ -2,6 +2,7 @@ package com.kafu.kafu.gov;
 
 import com.kafu.kafu.address.Address;
 import com.kafu.kafu.address.AddressService;
+import com.kafu.kafu.common.MultiGetResponse;
 import com.kafu.kafu.exception.ApplicationErrorEnum;
 import com.kafu.kafu.exception.BusinessException;
 import com.kafu.kafu.s3.S3Service;
@@ -24,6 +25,10 @@ public class GovService {
         return govRepository.findAll();
     }
 
+    public List<Gov> findAllByIds(List<Long> ids) {
+        return govRepository.findAllByIdAny(MultiGetResponse.distinctIds(ids));
+    }
+
     public Gov findById(Long id) {
         return govRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.GOV_NOT_FOUND));
@@ -7,5 +7,10 @@ import java.util.Map;
 
 public interface PaymentService {
     PaymentSessionResponse createPaymentSession(PaymentSessionRequest request);
-    WebhookEvent getEvent(String payload, Map<String, String> headers);
+
+    /** Checks the webhook signature and returns the gateway's event id. */
+    String verifyEvent(String payload, Map<String, String> headers);
+
+    /** Reads a webhook payload whose signature was already checked by {@link #verifyEvent}. */
+    WebhookEvent parseEvent(String payload);
 }
@@ -0,0 +1,173 @@
+package com.kafu.kafu.payment;
+
+import com.kafu.kafu.common.Retries;
+import com.kafu.kafu.donation.DonationService;
+import com.kafu.kafu.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the payment webhook inbox with {@code payment.webhook.workers} concurrent workers, each leasing
+ * batches of due events until none are left. Within a batch the events for one donation are coalesced
+ * into a single {@link DonationService#updateStatus} call. Failures are retried with capped exponential
+ * backoff up to {@code payment.webhook.max-attempts}; events that can never apply (unreadable, unknown
+ * donation, out of attempts) are completed with the reason in {@code last_error}.
+ * Publishes {@code payment.webhook.inbox.lag}, the age of the oldest unprocessed event.
+ */
+@Component
+@Slf4j
+public class PaymentWebhookWorker {
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final DonationService donationService;
+    private final Map<PaymentMethod, PaymentService> paymentServices;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration retention;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter appliedCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+
+    public PaymentWebhookWorker(WebhookInboxRepository webhookInboxRepository,
+                                DonationService donationService,
+                                Map<PaymentMethod, PaymentService> paymentServices,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.webhook.workers}") int workers,
+                                @Value("${payment.webhook.batch-size}") int batchSize,
+                                @Value("${payment.webhook.max-attempts}") int maxAttempts,
+                                @Value("${payment.webhook.lease}") Duration lease,
+                                @Value("${payment.webhook.retention}") Duration retention) {
+        this.webhookInboxRepository = webhookInboxRepository;
+        this.donationService = donationService;
+        this.paymentServices = paymentServices;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.retention = retention;
+        Gauge.builder("payment.webhook.inbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest unprocessed payment webhook")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("payment.webhook.applied")
+                .description("Donation status updates applied from payment webhooks")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("payment.webhook.coalesced")
+                .description("Payment webhooks folded into another event's update for the same donation")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("payment.webhook.dropped")
+                .description("Payment webhooks completed without being applied")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval}")
+    public void drain() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(this::drainUntilEmpty);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhook.lag-interval}")
+    public void refreshLag() {
+        lagSeconds.set(webhookInboxRepository.lagSeconds());
+        int deleted = webhookInboxRepository.deleteProcessed(retention);
+        if (deleted > 0) {
+            log.debug("Deleted {} processed payment webhooks", deleted);
+        }
+    }
+
+    private void drainUntilEmpty() {
+        try {
+            List<WebhookInboxEvent> batch;
+            do {
+                batch = webhookInboxRepository.claim(batchSize, lease);
+                process(batch);
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            // leased events become due again when the lease runs out
+            log.error("Payment webhook worker stopped", e);
+        }
+    }
+
+    private void process(List<WebhookInboxEvent> batch) {
+        Map<String, List<WebhookInboxEvent>> eventsByOrder = new LinkedHashMap<>();
+        Map<String, WebhookEvent> updatesByOrder = new LinkedHashMap<>();
+        List<WebhookInboxEvent> ignored = new ArrayList<>();
+        for (WebhookInboxEvent event : batch) {
+            // leases that ran out without a result count as attempts too
+            if (event.getAttempts() > maxAttempts) {
+                drop(List.of(event), "Gave up after " + maxAttempts + " attempts");
+                continue;
+            }
+            WebhookEvent update;
+            try {
+                update = paymentServices.get(event.getPaymentMethod()).parseEvent(event.getPayload());
+            } catch (Exception e) {
+                drop(List.of(event), "Unreadable payload: " + e.getMessage());
+                continue;
+            }
+            // event types that carry no donation update
+            if (update.getGatewayOrderId() == null || update.getGatewayOrderId().isEmpty()) {
+                ignored.add(event);
+                continue;
+            }
+            eventsByOrder.computeIfAbsent(update.getGatewayOrderId(), key -> new ArrayList<>()).add(event);
+            // events are claimed oldest first, so the latest one wins; updateStatus keeps SUCCESS final
+            updatesByOrder.put(update.getGatewayOrderId(), update);
+        }
+        if (!ignored.isEmpty()) {
+            webhookInboxRepository.complete(ignored, null);
+        }
+
+        List<WebhookInboxEvent> applied = new ArrayList<>();
+        for (Map.Entry<String, WebhookEvent> entry : updatesByOrder.entrySet()) {
+            List<WebhookInboxEvent> events = eventsByOrder.get(entry.getKey());
+            try {
+                donationService.updateStatus(entry.getValue());
+                applied.addAll(events);
+                appliedCounter.increment();
+                coalescedCounter.increment(events.size() - 1);
+            } catch (BusinessException e) {
+                drop(events, e.getMessage());
+            } catch (Exception e) {
+                int attempts = events.stream().mapToInt(WebhookInboxEvent::getAttempts).max().orElse(1);
+                if (attempts >= maxAttempts) {
+                    drop(events, "Gave up after " + attempts + " attempts: " + e.getMessage());
+                } else {
+                    webhookInboxRepository.retry(events, Retries.backoff(attempts, INITIAL_BACKOFF, MAX_BACKOFF),
+                            Retries.truncateError(e.getMessage()));
+                    log.warn("Applying payment webhook for order {} failed (attempt {})", entry.getKey(), attempts, e);
+                }
+            }
+        }
+        if (!applied.isEmpty()) {
+            webhookInboxRepository.complete(applied, null);
+        }
+    }
+
+    private void drop(List<WebhookInboxEvent> events, String reason) {
+        webhookInboxRepository.complete(events, Retries.truncateError(reason));
+        droppedCounter.increment(events.size());
+        log.warn("Dropped payment webhooks {}: {}", events.stream().map(WebhookInboxEvent::getEventId).toList(), reason);
+    }
+}
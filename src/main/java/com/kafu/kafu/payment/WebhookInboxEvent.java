@@ -0,0 +1,16 @@
+package com.kafu.kafu.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/** A verified gateway event leased from {@code payment_webhook_inbox}. */
+@Data
+@AllArgsConstructor
+public class WebhookInboxEvent {
+    private PaymentMethod paymentMethod;
+    private String eventId;
+    private String payload;
+    private LocalDateTime receivedAt;
+    private int attempts;
+}
@@ -0,0 +1,105 @@
+package com.kafu.kafu.payment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Verified payment webhooks in {@code payment_webhook_inbox}, keyed by the gateway's event id so a
+ * redelivered event is stored once. Processed rows are kept for {@code payment.webhook.retention} to
+ * keep dropping late redeliveries. Workers lease due rows with {@code FOR UPDATE SKIP LOCKED}, so
+ * concurrent workers never get the same event; a lease that runs out makes the event due again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookInboxRepository {
+    private static final String ENQUEUE_SQL = """
+        INSERT INTO payment_webhook_inbox (payment_method, event_id, payload, received_at, next_attempt_at, attempts)
+        VALUES (?, ?, ?, now(), now(), 0)
+        ON CONFLICT (payment_method, event_id) DO NOTHING
+    """;
+
+    // oldest first; the lease is taken by pushing next_attempt_at past the processing window
+    private static final String CLAIM_SQL = """
+        WITH next AS (
+            SELECT payment_method, event_id
+            FROM payment_webhook_inbox
+            WHERE processed_at IS NULL AND next_attempt_at <= now()
+            ORDER BY received_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE payment_webhook_inbox i
+        SET next_attempt_at = now() + ? * interval '1 second', attempts = i.attempts + 1
+        FROM next
+        WHERE i.payment_method = next.payment_method AND i.event_id = next.event_id
+        RETURNING i.payment_method, i.event_id, i.payload, i.received_at, i.attempts
+    """;
+
+    private static final String COMPLETE_SQL = """
+        UPDATE payment_webhook_inbox SET processed_at = now(), last_error = ?
+        WHERE payment_method = ? AND event_id = ?
+    """;
+
+    private static final String RETRY_SQL = """
+        UPDATE payment_webhook_inbox SET next_attempt_at = now() + ? * interval '1 second', last_error = ?
+        WHERE payment_method = ? AND event_id = ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false if the event was already in the inbox
+     */
+    public boolean enqueue(PaymentMethod paymentMethod, String eventId, String payload) {
+        return jdbcTemplate.update(ENQUEUE_SQL, paymentMethod.name(), eventId, payload) > 0;
+    }
+
+    public List<WebhookInboxEvent> claim(int batchSize, Duration lease) {
+        List<WebhookInboxEvent> events = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new WebhookInboxEvent(
+                PaymentMethod.valueOf(rs.getString("payment_method")),
+                rs.getString("event_id"),
+                rs.getString("payload"),
+                rs.getTimestamp("received_at").toLocalDateTime(),
+                rs.getInt("attempts")), batchSize, lease.toSeconds());
+        // RETURNING does not keep the claim order
+        events.sort((a, b) -> a.getReceivedAt().compareTo(b.getReceivedAt()));
+        return events;
+    }
+
+    /** Marks the events done; {@code error} records why an event was dropped instead of applied. */
+    public void complete(List<WebhookInboxEvent> events, String error) {
+        jdbcTemplate.batchUpdate(COMPLETE_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, error);
+            ps.setString(2, event.getPaymentMethod().name());
+            ps.setString(3, event.getEventId());
+        });
+    }
+
+    public void retry(List<WebhookInboxEvent> events, Duration delay, String error) {
+        jdbcTemplate.batchUpdate(RETRY_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, delay.toSeconds());
+            ps.setString(2, error);
+            ps.setString(3, event.getPaymentMethod().name());
+            ps.setString(4, event.getEventId());
+        });
+    }
+
+    /** Seconds since the oldest unprocessed event arrived, or 0 when the inbox is drained. */
+    public long lagSeconds() {
+        Long lag = jdbcTemplate.queryForObject("""
+            SELECT coalesce(extract(epoch FROM now() - min(received_at)), 0)::bigint
+            FROM payment_webhook_inbox
+            WHERE processed_at IS NULL
+        """, Long.class);
+        return lag != null ? lag : 0;
+    }
+
+    public int deleteProcessed(Duration retention) {
+        return jdbcTemplate.update(
+                "DELETE FROM payment_webhook_inbox WHERE processed_at < now() - ? * interval '1 second'",
+                retention.toSeconds());
+    }
+}
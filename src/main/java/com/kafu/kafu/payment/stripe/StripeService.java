@@ -7,7 +7,9 @@ import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Charge;
 import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
 import com.stripe.net.RequestOptions;
 import com.stripe.net.Webhook;
 import com.stripe.param.checkout.SessionCreateParams;
@@ -73,15 +75,19 @@ public class StripeService implements PaymentService {
 
 
     @Override
-    @Transactional
-    public WebhookEvent getEvent(String payload, Map<String, String> headers) {
-
-        Event event = null;
+    public String verifyEvent(String payload, Map<String, String> headers) {
         try {
-            event = Webhook.constructEvent(payload, headers.get("Stripe-Signature"), stripeEndpointSecret);
+            return Webhook.constructEvent(payload, headers.get("Stripe-Signature"), stripeEndpointSecret).getId();
         } catch (SignatureVerificationException e) {
             throw new RuntimeException("Invalid Stripe signature");
         }
+    }
+
+    // no signature check here: the signed timestamp would be stale for events that waited in the inbox
+    @Override
+    public WebhookEvent parseEvent(String payload) {
+
+        Event event = StripeObject.deserializeStripeObject(payload, Event.class, ApiResource.getGlobalResponseGetter());
 
         // Extract relevant data based on event type
         if ("checkout.session.completed".equals(event.getType())) {
@@ -44,6 +44,11 @@ public class Problem {
     @Column(name = "rejection_reason", nullable = false)
     private String rejectionReason;
 
+    // bumped on every update; a write carrying a stale version fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     //relationships
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,16 @@
+package com.kafu.kafu.problem;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link ProblemService} for every created, changed or deleted problem.
+ * {@code before} is null on create and {@code after} is null on delete.
+ */
+@Data
+@AllArgsConstructor
+public class ProblemChangedEvent {
+    private Long problemId;
+    private ProblemSnapshot before;
+    private ProblemSnapshot after;
+}
@@ -0,0 +1,62 @@
+package com.kafu.kafu.problem;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Leases on {@code PENDING_APPROVAL} problems, kept in {@code problem_moderation_claim} so the problem rows
+ * themselves are not rewritten. Claiming locks candidate rows with {@code FOR UPDATE SKIP LOCKED}: concurrent
+ * claimers skip each other's rows instead of waiting on them, and a live lease is never taken over, so no two
+ * moderators hold the same problem.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemClaimRepository {
+
+    // oldest first; rows leased to someone else are skipped until the lease runs out, the caller's own are renewed.
+    // The join reads claims from the statement snapshot, which can miss a claim committed while this statement
+    // waited, so the DO UPDATE re-checks the lease against the latest claim row and RETURNING only has real wins.
+    private static final String CLAIM_SQL = """
+        WITH next AS (
+            SELECT p.id
+            FROM problem p
+            LEFT JOIN problem_moderation_claim c ON c.problem_id = p.id
+            WHERE p.status = 'PENDING_APPROVAL'
+              AND (c.problem_id IS NULL OR c.lease_until < now() OR c.moderator_id = ?)
+            ORDER BY p.submission_date, p.id
+            LIMIT ?
+            FOR UPDATE OF p SKIP LOCKED
+        )
+        INSERT INTO problem_moderation_claim (problem_id, moderator_id, lease_until)
+        SELECT id, ?, now() + ? * interval '1 second' FROM next
+        ON CONFLICT (problem_id) DO UPDATE
+            SET moderator_id = EXCLUDED.moderator_id, lease_until = EXCLUDED.lease_until
+            WHERE problem_moderation_claim.lease_until < now()
+               OR problem_moderation_claim.moderator_id = EXCLUDED.moderator_id
+        RETURNING problem_id
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> claim(Long moderatorId, int count, Duration lease) {
+        return jdbcTemplate.queryForList(CLAIM_SQL, Long.class, moderatorId, count, moderatorId, lease.toSeconds());
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM problem WHERE status = 'PENDING_APPROVAL'", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /** Drops expired leases and leases on problems that have left the queue. */
+    public int deleteStale() {
+        return jdbcTemplate.update("""
+            DELETE FROM problem_moderation_claim c
+            USING problem p
+            WHERE p.id = c.problem_id AND (c.lease_until < now() OR p.status <> 'PENDING_APPROVAL')
+        """);
+    }
+}
@@ -0,0 +1,89 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.problem.dto.ModerationClaimDTO;
+import com.kafu.kafu.user.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the {@code PENDING_APPROVAL} queue in leased batches so moderators stop colliding on the same items.
+ * Publishes {@code problem.moderation.queue.depth} (refreshed every {@code problem.moderation.queue-depth-interval})
+ * and the {@code problem.moderation.claim} latency timer.
+ */
+@Service
+@Slf4j
+public class ProblemClaimService {
+    private final ProblemClaimRepository problemClaimRepository;
+    private final ProblemRepository problemRepository;
+    private final UserService userService;
+    private final Duration lease;
+    private final int maxClaim;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer claimTimer;
+    private final Counter claimedCounter;
+
+    public ProblemClaimService(ProblemClaimRepository problemClaimRepository,
+                               ProblemRepository problemRepository,
+                               UserService userService,
+                               MeterRegistry meterRegistry,
+                               @Value("${problem.moderation.lease}") Duration lease,
+                               @Value("${problem.moderation.max-claim}") int maxClaim) {
+        this.problemClaimRepository = problemClaimRepository;
+        this.problemRepository = problemRepository;
+        this.userService = userService;
+        this.lease = lease;
+        this.maxClaim = maxClaim;
+        Gauge.builder("problem.moderation.queue.depth", queueDepth, AtomicLong::get)
+                .description("Problems waiting in PENDING_APPROVAL")
+                .register(meterRegistry);
+        this.claimTimer = Timer.builder("problem.moderation.claim")
+                .description("Time to lease a batch of pending problems")
+                .register(meterRegistry);
+        this.claimedCounter = Counter.builder("problem.moderation.claimed")
+                .description("Pending problems leased to moderators")
+                .register(meterRegistry);
+    }
+
+    /** Leases up to {@code count} of the oldest unclaimed pending problems to the current user. */
+    @Transactional
+    public ModerationClaimDTO claim(int count) {
+        if (count < 1 || count > maxClaim) {
+            throw new IllegalArgumentException("count must be between 1 and " + maxClaim);
+        }
+        Long moderatorId = userService.getCurrentUser().getId();
+
+        Timer.Sample sample = Timer.start();
+        List<Long> ids = problemClaimRepository.claim(moderatorId, count, lease);
+        sample.stop(claimTimer);
+        claimedCounter.increment(ids.size());
+
+        List<Problem> problems = ids.isEmpty() ? List.of() : problemRepository.findAllByIdAny(ids.toArray(Long[]::new));
+        return new ModerationClaimDTO(
+                problems.stream()
+                        .sorted(Comparator.comparing(Problem::getSubmissionDate).thenComparing(Problem::getId))
+                        .map(ProblemMapper::toDTO)
+                        .toList(),
+                LocalDateTime.now().plus(lease));
+    }
+
+    @Scheduled(fixedDelayString = "${problem.moderation.queue-depth-interval}")
+    public void refreshQueue() {
+        queueDepth.set(problemClaimRepository.countPending());
+        int released = problemClaimRepository.deleteStale();
+        if (released > 0) {
+            log.debug("Released {} stale moderation claims", released);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.Geohash;
+import com.kafu.kafu.problem.dto.ProblemClusterDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map clusters read from the precomputed grid in {@link ProblemGridRepository}; the problem
+ * table is never scanned on this path.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProblemClusterService {
+    // upper bound on cells per request; the precision is lowered until the viewport fits
+    static final int MAX_CELLS = 1024;
+
+    private final ProblemGridRepository problemGridRepository;
+
+    /**
+     * @param bbox {@code west,south,east,north} in degrees
+     * @param zoom web map zoom level, mapped to a geohash precision
+     */
+    public List<ProblemClusterDTO> findClusters(String bbox, int zoom) {
+        double[] box = parseBbox(bbox);
+        double west = box[0], south = box[1], east = box[2], north = box[3];
+
+        int precision = precisionForZoom(zoom);
+        while (precision > ProblemGridRepository.MIN_PRECISION
+                && Geohash.cellCount(south, north, west, east, precision) > MAX_CELLS) {
+            precision--;
+        }
+        Set<String> cells = Geohash.cover(south, north, west, east, precision);
+
+        Map<String, List<ProblemGridRepository.GridCell>> byCell = new LinkedHashMap<>();
+        for (ProblemGridRepository.GridCell row : problemGridRepository.findByCells(precision, cells)) {
+            byCell.computeIfAbsent(row.getCell(), cell -> new ArrayList<>()).add(row);
+        }
+
+        List<ProblemClusterDTO> clusters = new ArrayList<>(byCell.size());
+        byCell.forEach((cell, rows) -> {
+            long count = 0;
+            double latitudeSum = 0, longitudeSum = 0;
+            Map<ProblemStatus, Long> statusCounts = new EnumMap<>(ProblemStatus.class);
+            for (ProblemGridRepository.GridCell row : rows) {
+                count += row.getCount();
+                latitudeSum += row.getLatitudeSum();
+                longitudeSum += row.getLongitudeSum();
+                statusCounts.put(row.getStatus(), row.getCount());
+            }
+            clusters.add(new ProblemClusterDTO(cell, latitudeSum / count, longitudeSum / count, count, statusCounts));
+        });
+        return clusters;
+    }
+
+    @Scheduled(fixedDelayString = "${problem.clusters.rebuild-interval}", initialDelayString = "${problem.clusters.rebuild-initial-delay}")
+    public void rebuild() {
+        problemGridRepository.rebuild();
+        log.info("Rebuilt problem map grid");
+    }
+
+    // roughly one geohash cell per 256px tile
+    static int precisionForZoom(int zoom) {
+        int precision;
+        if (zoom <= 2) precision = 1;
+        else if (zoom <= 5) precision = 2;
+        else if (zoom <= 7) precision = 3;
+        else if (zoom <= 10) precision = 4;
+        else if (zoom <= 12) precision = 5;
+        else if (zoom <= 15) precision = 6;
+        else precision = 7;
+        return Math.min(precision, ProblemGridRepository.MAX_PRECISION);
+    }
+
+    private static double[] parseBbox(String bbox) {
+        try {
+            String[] parts = bbox.split(",");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            double[] box = new double[4];
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+            if (box[0] > box[2] || box[1] > box[3] || box[0] < -180 || box[2] > 180 || box[1] < -90 || box[3] > 90) {
+                throw new IllegalArgumentException();
+            }
+            return box;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("bbox must be west,south,east,north in degrees");
+        }
+    }
+}
@@ -1,33 +1,124 @@
 package com.kafu.kafu.problem;
 
+import com.kafu.kafu.common.ETags;
+import com.kafu.kafu.common.ExportFormat;
+import com.kafu.kafu.common.MultiGetResponse;
+import com.kafu.kafu.donation.ProblemFundingService;
+import com.kafu.kafu.problem.dto.CursorPage;
+import com.kafu.kafu.problem.dto.ModerationBatchDTO;
+import com.kafu.kafu.problem.dto.ModerationClaimDTO;
+import com.kafu.kafu.problem.dto.ModerationResultDTO;
+import com.kafu.kafu.problem.dto.FacetedPage;
+import com.kafu.kafu.problem.dto.NearbyProblemDTO;
+import com.kafu.kafu.problem.dto.ProblemClusterDTO;
 import com.kafu.kafu.problem.dto.ProblemDTO;
 import com.kafu.kafu.problem.dto.ProblemDetailsDTO;
+import com.kafu.kafu.problem.dto.ProblemFullDTO;
 import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
+import com.kafu.kafu.problem.dto.ProblemSummaryDTO;
 import com.kafu.kafu.problem.dto.UserProblemSearchCriteria;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/problems")
 @RequiredArgsConstructor
 public class ProblemController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final ProblemService problemService;
+    private final ProblemFullService problemFullService;
+    private final ProblemClusterService problemClusterService;
+    private final ProblemFacetService problemFacetService;
+    private final ProblemExportService problemExportService;
+    private final ProblemModerationService problemModerationService;
+    private final ProblemClaimService problemClaimService;
+    private final ProblemFundingService problemFundingService;
 
+    // view=summary returns ProblemSummaryDTO rows without the full description
     @GetMapping
-    public ResponseEntity<Page<ProblemDTO>> findAll(@ModelAttribute ProblemSearchCriteria criteria,
-                                                    @PageableDefault(size = 20) Pageable pageable) {
-        return ResponseEntity.ok(problemService.search(criteria,pageable).map(ProblemMapper::toDTO));
+    public ResponseEntity<Page<?>> findAll(@ModelAttribute ProblemSearchCriteria criteria,
+                                           @RequestParam(defaultValue = "FULL") ProblemView view,
+                                           @PageableDefault(size = 20) Pageable pageable) {
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(problemService.searchSummaries(criteria, pageable));
+        }
+        return ResponseEntity.ok(problemService.searchDTOs(criteria, pageable));
+    }
+
+    // facets=true adds per status/city/category/gov counts for the same criteria
+    @GetMapping(params = {"facets=true", "!cursor"})
+    public ResponseEntity<FacetedPage<?>> findAllWithFacets(@ModelAttribute ProblemSearchCriteria criteria,
+                                                            @RequestParam(defaultValue = "FULL") ProblemView view,
+                                                            @PageableDefault(size = 20) Pageable pageable) {
+        Page<?> page = view == ProblemView.SUMMARY
+                ? problemService.searchSummaries(criteria, pageable)
+                : problemService.searchDTOs(criteria, pageable);
+        return ResponseEntity.ok(new FacetedPage<>(page, problemFacetService.findFacets(criteria)));
+    }
+
+    // cursor mode: selected by the presence of the cursor parameter, empty for the first page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<?>> findAllByCursor(@ModelAttribute ProblemSearchCriteria criteria,
+                                                         @RequestParam String cursor,
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         @RequestParam(defaultValue = "FULL") ProblemView view) {
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(toSummaryCursorPage(problemService.searchSummariesByCursor(criteria, cursor, cursorPageSize(size))));
+        }
+        return ResponseEntity.ok(toCursorPage(problemService.searchByCursor(criteria, cursor, cursorPageSize(size))));
+    }
+
+
+    @GetMapping(params = {"ids", "!cursor"})
+    public ResponseEntity<MultiGetResponse<ProblemDTO>> findAllByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(MultiGetResponse.of(ids, problemService.findAllByIds(ids), Problem::getId, ProblemMapper::toDTO));
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyProblemDTO>> findNearby(@ModelAttribute ProblemSearchCriteria criteria,
+                                                             @RequestParam double lat,
+                                                             @RequestParam double lng,
+                                                             @RequestParam(defaultValue = "2") double radiusKm,
+                                                             @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(problemService.findNearby(criteria, lat, lng, radiusKm, limit));
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ProblemClusterDTO>> findClusters(@RequestParam String bbox, @RequestParam int zoom) {
+        return ResponseEntity.ok(problemClusterService.findClusters(bbox, zoom));
+    }
+
+    // streamed straight to the response with the same filters as the search, one row at a time
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@ModelAttribute ProblemSearchCriteria criteria,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"problems." + format.name().toLowerCase() + "\"")
+                .body(outputStream -> problemExportService.export(criteria, format, outputStream));
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProblemDTO> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(ProblemMapper.toDTO(problemService.findById(id)));
+        Problem problem = problemService.findById(id);
+        ProblemDTO dto = ProblemMapper.toDTO(problem);
+        dto.setFunding(problemFundingService.findByProblemId(id));
+        return ResponseEntity.ok().eTag(ETags.of(problem.getVersion())).body(dto);
+    }
+
+    @GetMapping("/{id}/full")
+    public ResponseEntity<ProblemFullDTO> findFullById(@PathVariable Long id) {
+        return ResponseEntity.ok(problemFullService.findFullById(id));
     }
 
     @PostMapping
@@ -35,9 +126,25 @@ public class ProblemController {
         return ResponseEntity.ok(ProblemMapper.toDTO(problemService.create(problemDetailsDTO)));
     }
 
+    // If-Match: "<version>" from a previous response makes the patch fail with 412 if the problem changed since
     @PatchMapping("/{id}")
-    public ResponseEntity<ProblemDTO> patch(@PathVariable Long id, @RequestBody ProblemDTO problemDTO) {
-        return ResponseEntity.ok(ProblemMapper.toDTO(problemService.patch(id, problemDTO)));
+    public ResponseEntity<ProblemDTO> patch(@PathVariable Long id,
+                                            @RequestBody ProblemDTO problemDTO,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Problem problem = problemService.patch(id, problemDTO, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(problem.getVersion())).body(ProblemMapper.toDTO(problem));
+    }
+
+    // per-item results in request order; invalid or concurrently decided items do not fail the batch
+    @PostMapping("/moderation/batch")
+    public ResponseEntity<List<ModerationResultDTO>> moderate(@Valid @RequestBody ModerationBatchDTO request) {
+        return ResponseEntity.ok(problemModerationService.moderate(request.getItems()));
+    }
+
+    // leases the next pending problems to the caller so concurrent moderators get disjoint work
+    @PostMapping("/moderation/claim")
+    public ResponseEntity<ModerationClaimDTO> claim(@RequestParam(defaultValue = "10") int count) {
+        return ResponseEntity.ok(problemClaimService.claim(count));
     }
 
     @DeleteMapping("/{id}")
@@ -47,17 +154,65 @@ public class ProblemController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Page<ProblemDTO>> findByUserId(
+    public ResponseEntity<Page<?>> findByUserId(
             @ModelAttribute UserProblemSearchCriteria criteria,
+            @RequestParam(defaultValue = "FULL") ProblemView view,
             @PageableDefault(size = 20) Pageable pageable) {
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(problemService.searchUserProblemSummaries(criteria, pageable));
+        }
         return ResponseEntity.ok(problemService.searchUserProblems(criteria, pageable)
                 .map(ProblemMapper::toDTO));
     }
 
+    @GetMapping(value = "/me", params = "cursor")
+    public ResponseEntity<CursorPage<?>> findByUserIdByCursor(
+            @ModelAttribute UserProblemSearchCriteria criteria,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "FULL") ProblemView view) {
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(toSummaryCursorPage(problemService.searchUserProblemSummariesByCursor(criteria, cursor, cursorPageSize(size))));
+        }
+        return ResponseEntity.ok(toCursorPage(problemService.searchUserProblemsByCursor(criteria, cursor, cursorPageSize(size))));
+    }
+
     @GetMapping("/real")
-    public ResponseEntity<Page<ProblemDTO>> findRealProblemsNotPendingApproval(
+    public ResponseEntity<Page<?>> findRealProblemsNotPendingApproval(
+            @RequestParam(defaultValue = "FULL") ProblemView view,
             @PageableDefault(size = 20) Pageable pageable) {
-        return ResponseEntity.ok(problemService.findRealProblemsNotPendingApproval(pageable)
-                .map(ProblemMapper::toDTO));
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(problemService.findRealProblemSummariesNotPendingApproval(pageable));
+        }
+        return ResponseEntity.ok(problemService.findRealProblemsNotPendingApproval(pageable));
+    }
+
+    @GetMapping(value = "/real", params = "cursor")
+    public ResponseEntity<CursorPage<?>> findRealProblemsNotPendingApprovalByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "FULL") ProblemView view) {
+        if (view == ProblemView.SUMMARY) {
+            return ResponseEntity.ok(toSummaryCursorPage(problemService.findRealProblemSummariesNotPendingApprovalByCursor(cursor, cursorPageSize(size))));
+        }
+        return ResponseEntity.ok(toCursorPage(problemService.findRealProblemsNotPendingApprovalByCursor(cursor, cursorPageSize(size))));
+    }
+
+    private static int cursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    private static CursorPage<ProblemDTO> toCursorPage(Slice<Problem> slice) {
+        String nextCursor = slice.hasNext()
+                ? ProblemCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode()
+                : null;
+        return new CursorPage<>(slice.map(ProblemMapper::toDTO).getContent(), nextCursor, slice.hasNext());
+    }
+
+    private static CursorPage<ProblemSummaryDTO> toSummaryCursorPage(Slice<ProblemSummaryDTO> slice) {
+        String nextCursor = slice.hasNext()
+                ? ProblemCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode()
+                : null;
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext());
     }
 }
@@ -0,0 +1,47 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.problem.dto.ProblemSummaryDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in the problem feed, ordered by (submissionDate desc, id desc).
+ * Clients only see the opaque base64url form.
+ */
+@Data
+@AllArgsConstructor
+public class ProblemCursor {
+    private LocalDateTime submissionDate;
+    private Long id;
+
+    public static ProblemCursor of(Problem problem) {
+        return new ProblemCursor(problem.getSubmissionDate(), problem.getId());
+    }
+
+    public static ProblemCursor of(ProblemSummaryDTO summary) {
+        return new ProblemCursor(summary.getSubmissionDate(), summary.getId());
+    }
+
+    /** Returns null for a blank cursor, which means the first page. */
+    public static ProblemCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new ProblemCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = submissionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
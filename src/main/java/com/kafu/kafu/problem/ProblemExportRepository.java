@@ -0,0 +1,59 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.problem.dto.ProblemDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import java.util.stream.Stream;
+
+/**
+ * Streams problems matching a specification as {@link ProblemDTO} rows. The rows are constructed
+ * directly from the result set, so nothing accumulates in the persistence context, and the driver
+ * fetches them {@value #FETCH_SIZE} at a time. Must be consumed inside a transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemExportRepository {
+    static final int FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    public Stream<ProblemDTO> stream(Specification<Problem> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProblemDTO> query = cb.createQuery(ProblemDTO.class);
+        Root<Problem> root = query.from(Problem.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // foreign key ids are read from the problem row; no join is added for them
+        query.select(cb.construct(ProblemDTO.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("isReal"),
+                root.get("forContribution"),
+                root.get("forDonation"),
+                root.get("submissionDate"),
+                root.get("status"),
+                root.get("rejectionReason"),
+                root.get("address").get("id"),
+                root.get("submittedByUser").get("id"),
+                root.get("approvedByUser").get("id"),
+                root.get("category").get("id"),
+                root.get("version")));
+        // keeps a relevance order from the specification, otherwise walks the primary key
+        if (query.getOrderList().isEmpty()) {
+            query.orderBy(cb.asc(root.get("id")));
+        }
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,42 @@
+package com.kafu.kafu.problem;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafu.kafu.common.ExportFormat;
+import com.kafu.kafu.common.ExportWriter;
+import com.kafu.kafu.problem.dto.ProblemDTO;
+import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ProblemExportService {
+    private static final List<String> CSV_HEADER = List.of(
+            "id", "title", "description", "isReal", "forContribution", "forDonation", "submissionDate",
+            "status", "rejectionReason", "addressId", "submittedByUserId", "approvedByUserId", "categoryId");
+
+    private final ProblemExportRepository problemExportRepository;
+    private final ObjectMapper objectMapper;
+
+    // the transaction keeps the server-side cursor open while rows are written
+    @Transactional(readOnly = true)
+    public long export(ProblemSearchCriteria criteria, ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<ProblemDTO> rows = problemExportRepository.stream(ProblemSpecification.withSearchCriteria(criteria))) {
+            return new ExportWriter<>(objectMapper, format, CSV_HEADER, ProblemExportService::csvColumns)
+                    .write(rows, outputStream);
+        }
+    }
+
+    private static List<?> csvColumns(ProblemDTO problem) {
+        return Arrays.asList(problem.getId(), problem.getTitle(), problem.getDescription(), problem.getIsReal(),
+                problem.getForContribution(), problem.getForDonation(), problem.getSubmissionDate(),
+                problem.getStatus(), problem.getRejectionReason(), problem.getAddressId(),
+                problem.getSubmittedByUserId(), problem.getApprovedByUserId(), problem.getCategoryId());
+    }
+}
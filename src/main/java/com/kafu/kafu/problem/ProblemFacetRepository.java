@@ -0,0 +1,83 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.City;
+import com.kafu.kafu.problem.dto.FacetCountDTO;
+import com.kafu.kafu.problem.dto.ProblemFacetsDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts problems matching a specification per status, city, category and gov in one
+ * {@code GROUPING SETS} query, instead of one count query per facet value.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemFacetRepository {
+    // facet_grouping bits: a set bit means the column is aggregated away in that row
+    private static final int BY_STATUS = 0b0111;
+    private static final int BY_CITY = 0b1011;
+    private static final int BY_CATEGORY = 0b1101;
+    private static final int BY_GOV = 0b1110;
+
+    private final EntityManager entityManager;
+
+    public ProblemFacetsDTO findFacets(Specification<Problem> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Problem> root = query.from(Problem.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // a relevance ordering added by the specification has no meaning for grouped rows
+        query.orderBy(List.of());
+
+        Join<?, ?> category = join(root, "category");
+        Path<ProblemStatus> status = root.get("status");
+        Path<City> city = join(root, "address").get("city");
+        Path<Long> categoryId = category.get("id");
+        Join<?, ?> gov = join(category, "gov");
+        Path<Long> govId = gov.get("id");
+
+        Expression<Integer> grouping = cb.function("facet_grouping", Integer.class, status, city, categoryId, govId);
+        query.multiselect(grouping, status, city, categoryId, category.get("name"), govId, gov.get("name"), cb.count(root));
+        query.groupBy(cb.function("facet_grouping_sets", Integer.class,
+                status, city, categoryId, category.get("name"), govId, gov.get("name")));
+
+        Map<ProblemStatus, Long> statuses = new EnumMap<>(ProblemStatus.class);
+        Map<City, Long> cities = new EnumMap<>(City.class);
+        List<FacetCountDTO> categories = new ArrayList<>();
+        List<FacetCountDTO> govs = new ArrayList<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            long count = row.get(7, Long.class);
+            switch (row.get(0, Integer.class)) {
+                case BY_STATUS -> statuses.put(row.get(1, ProblemStatus.class), count);
+                case BY_CITY -> cities.put(row.get(2, City.class), count);
+                case BY_CATEGORY -> categories.add(new FacetCountDTO(row.get(3, Long.class), row.get(4, String.class), count));
+                case BY_GOV -> govs.add(new FacetCountDTO(row.get(5, Long.class), row.get(6, String.class), count));
+                default -> { }
+            }
+        }
+        categories.sort(Comparator.comparing(FacetCountDTO::getCount).reversed());
+        govs.sort(Comparator.comparing(FacetCountDTO::getCount).reversed());
+        return new ProblemFacetsDTO(statuses, cities, categories, govs);
+    }
+
+    // reuses a join the specification already made instead of joining the table twice
+    private static Join<?, ?> join(From<?, ?> from, String attribute) {
+        return from.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals(attribute))
+                .findFirst()
+                .orElseGet(() -> from.join(attribute));
+    }
+}
@@ -0,0 +1,61 @@
+package com.kafu.kafu.problem;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kafu.kafu.problem.dto.ProblemFacetsDTO;
+import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+
+/**
+ * Facet counts for problem searches. Unfiltered counts are the same for every visitor of the
+ * search page, so they are cached for {@code problem.facets.ttl}; filtered counts are always computed.
+ */
+@Service
+public class ProblemFacetService {
+    private static final String UNFILTERED = "unfiltered";
+
+    private final ProblemFacetRepository problemFacetRepository;
+    private final Cache<String, ProblemFacetsDTO> unfilteredFacets;
+
+    public ProblemFacetService(ProblemFacetRepository problemFacetRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${problem.facets.ttl}") Duration ttl) {
+        this.problemFacetRepository = problemFacetRepository;
+        this.unfilteredFacets = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unfilteredFacets, "problemFacets");
+    }
+
+    @Transactional(readOnly = true)
+    public ProblemFacetsDTO findFacets(ProblemSearchCriteria criteria) {
+        if (isUnfiltered(criteria)) {
+            return unfilteredFacets.get(UNFILTERED,
+                    key -> problemFacetRepository.findFacets(ProblemSpecification.withSearchCriteria(criteria)));
+        }
+        return problemFacetRepository.findFacets(ProblemSpecification.withSearchCriteria(criteria));
+    }
+
+    private static boolean isUnfiltered(ProblemSearchCriteria criteria) {
+        return isBlank(criteria.getSearchText())
+                && criteria.getForContribution() == null
+                && criteria.getForDonation() == null
+                && criteria.getCity() == null
+                && criteria.getStatus() == null
+                && criteria.getCategoryId() == null
+                && criteria.getGovId() == null
+                && isBlank(criteria.getGovName())
+                && criteria.getIsReal() == null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,135 @@
+package com.kafu.kafu.problem;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of the first pages of the public {@code /problems/real} feed, keyed by view and pageable.
+ * <p>
+ * Entries are dropped after commit of a change that touches the feed: a problem entering or leaving it,
+ * or moving in submission order, clears every page; any other edit of a listed problem drops only the
+ * pages that contain it. Pages loaded while a change was committing are not stored.
+ * Hit/miss counters are published under {@code cache=problemFeed}; the age of served entries under
+ * {@code problem.feed.cache.age}.
+ */
+@Component
+public class ProblemFeedCache {
+    // the feed order is fully determined by these properties, so an edit of other fields cannot move a row between pages
+    private static final Set<String> CACHEABLE_SORT_PROPERTIES = Set.of("submissionDate", "id");
+
+    private final Cache<FeedKey, FeedPage> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxPages;
+    private final int maxPageSize;
+    private final Timer entryAge;
+    private final Counter fullInvalidations;
+    private final Counter pageInvalidations;
+
+    public ProblemFeedCache(MeterRegistry meterRegistry,
+                            @Value("${problem.feed.cache.pages}") int maxPages,
+                            @Value("${problem.feed.cache.max-page-size}") int maxPageSize,
+                            @Value("${problem.feed.cache.ttl}") Duration ttl) {
+        this.maxPages = maxPages;
+        this.maxPageSize = maxPageSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "problemFeed");
+        this.entryAge = Timer.builder("problem.feed.cache.age")
+                .description("Time since a served feed page was loaded from the database")
+                .register(meterRegistry);
+        this.fullInvalidations = Counter.builder("problem.feed.cache.invalidations").tag("scope", "all").register(meterRegistry);
+        this.pageInvalidations = Counter.builder("problem.feed.cache.invalidations").tag("scope", "page").register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> get(ProblemView view, Pageable pageable, Supplier<Page<T>> loader, Function<T, Long> idOf) {
+        if (!isCacheable(pageable)) {
+            return loader.get();
+        }
+        FeedKey key = new FeedKey(view, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        FeedPage cached = cache.getIfPresent(key);
+        if (cached != null) {
+            entryAge.record(Duration.ofNanos(System.nanoTime() - cached.getLoadedAt()));
+            return (Page<T>) cached.getPage();
+        }
+
+        long loadGeneration = generation.get();
+        long loadedAt = System.nanoTime();
+        Page<T> page = loader.get();
+        Set<Long> ids = page.getContent().stream().map(idOf).collect(Collectors.toSet());
+        if (generation.get() == loadGeneration) {
+            cache.put(key, new FeedPage(page, ids, loadedAt));
+            // an invalidation may have slipped in between the check and the put
+            if (generation.get() != loadGeneration) {
+                cache.invalidate(key);
+            }
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProblemChanged(ProblemChangedEvent event) {
+        ProblemSnapshot before = event.getBefore();
+        ProblemSnapshot after = event.getAfter();
+        boolean wasListed = before != null && before.isInRealFeed();
+        boolean isListed = after != null && after.isInRealFeed();
+        if (!wasListed && !isListed) {
+            return;
+        }
+
+        generation.incrementAndGet();
+        if (wasListed != isListed || !Objects.equals(before.getSubmissionDate(), after.getSubmissionDate())) {
+            cache.invalidateAll();
+            fullInvalidations.increment();
+        } else {
+            cache.asMap().values().removeIf(page -> page.getIds().contains(event.getProblemId()));
+            pageInvalidations.increment();
+        }
+    }
+
+    private boolean isCacheable(Pageable pageable) {
+        return pageable.isPaged()
+                && pageable.getPageNumber() < maxPages
+                && pageable.getPageSize() <= maxPageSize
+                && pageable.getSort().stream().allMatch(order -> CACHEABLE_SORT_PROPERTIES.contains(order.getProperty()));
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class FeedKey {
+        private ProblemView view;
+        private int page;
+        private int size;
+        private Sort sort;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class FeedPage {
+        private Page<?> page;
+        private Set<Long> ids;
+        private long loadedAt;
+    }
+}
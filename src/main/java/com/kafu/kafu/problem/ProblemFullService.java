@@ -0,0 +1,91 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.donation.DonationService;
+import com.kafu.kafu.problem.dto.ProblemFullDTO;
+import com.kafu.kafu.problemphoto.ProblemPhotoService;
+import com.kafu.kafu.problemprogress.ProblemProgressMapper;
+import com.kafu.kafu.problemprogress.ProblemProgressService;
+import com.kafu.kafu.solution.SolutionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Assembles the problem page in one request. The loads are independent, so they run
+ * concurrently on virtual threads, each with its own short-lived persistence context. Everything
+ * is mapped to DTOs from ids or fetch-joined data, so nothing lazy is touched after the loads.
+ * Each load holds a pooled connection, so across all page views at most
+ * {@code problem.full.max-concurrent-loads} run at once and the rest of the pool stays free.
+ */
+@Service
+public class ProblemFullService {
+    static final int RECENT_DONATIONS = 5;
+
+    private final ProblemService problemService;
+    private final ProblemPhotoService problemPhotoService;
+    private final ProblemProgressService problemProgressService;
+    private final SolutionService solutionService;
+    private final DonationService donationService;
+    private final Semaphore loadPermits;
+
+    public ProblemFullService(ProblemService problemService,
+                              ProblemPhotoService problemPhotoService,
+                              ProblemProgressService problemProgressService,
+                              SolutionService solutionService,
+                              DonationService donationService,
+                              @Value("${problem.full.max-concurrent-loads}") int maxConcurrentLoads) {
+        this.problemService = problemService;
+        this.problemPhotoService = problemPhotoService;
+        this.problemProgressService = problemProgressService;
+        this.solutionService = solutionService;
+        this.donationService = donationService;
+        this.loadPermits = new Semaphore(maxConcurrentLoads, true);
+    }
+
+    public ProblemFullDTO findFullById(Long id) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var problem = submit(executor, () -> ProblemMapper.toDTO(problemService.findById(id)));
+            var photos = submit(executor, () -> problemPhotoService.findDTOsByProblemIdWithPresignedUrls(id));
+            var progress = submit(executor, () -> problemProgressService.findWithPhotosByProblemId(id).stream()
+                    .map(ProblemProgressMapper::toDTO)
+                    .toList());
+            var solutions = submit(executor, () -> solutionService.findSolutionWithSubmitterByProblemId(id));
+            var donations = submit(executor, () -> donationService.summarize(id, RECENT_DONATIONS));
+
+            // funding totals are already in donations.totals, so problem.funding stays unset here
+            return new ProblemFullDTO(join(problem), join(photos), join(progress), join(solutions), join(donations));
+        }
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> load) {
+        return executor.submit(() -> {
+            loadPermits.acquire();
+            try {
+                return load.call();
+            } finally {
+                loadPermits.release();
+            }
+        });
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Problem load interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
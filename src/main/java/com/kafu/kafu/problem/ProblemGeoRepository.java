@@ -0,0 +1,56 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.Geohash;
+import com.kafu.kafu.problem.dto.NearbyProblemDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Radius search over problem addresses. Geohash cells covering the circle become range
+ * predicates on the {@code address.geohash} index; the exact haversine distance then filters
+ * and orders the surviving candidates.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemGeoRepository {
+    private final EntityManager entityManager;
+
+    public List<NearbyProblemDTO> findNearby(Specification<Problem> spec, double latitude, double longitude,
+                                             double radiusKm, int limit) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Problem> root = query.from(Problem.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        // reuses the specification's address join, e.g. from a city filter
+        Join<?, ?> address = root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("address"))
+                .findFirst()
+                .orElseGet(() -> root.join("address"));
+        Path<String> geohash = address.get("geohash");
+        Predicate inCells = cb.or(Geohash.cover(latitude, longitude, radiusKm).stream()
+                .map(cell -> cb.and(
+                        cb.greaterThanOrEqualTo(geohash, cell),
+                        cb.lessThan(geohash, Geohash.upperBound(cell))))
+                .toArray(Predicate[]::new));
+        Expression<Double> distance = cb.function("haversine_km", Double.class,
+                address.get("latitude"), address.get("longitude"), cb.value(latitude), cb.value(longitude));
+
+        query.multiselect(root, distance)
+                .where(predicate == null ? inCells : cb.and(predicate, inCells),
+                        cb.lessThanOrEqualTo(distance, radiusKm))
+                .orderBy(cb.asc(distance), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> new NearbyProblemDTO(ProblemMapper.toDTO(row.get(0, Problem.class)), row.get(1, Double.class)))
+                .toList();
+    }
+}
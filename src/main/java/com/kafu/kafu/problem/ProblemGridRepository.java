@@ -0,0 +1,175 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.Address;
+import com.kafu.kafu.address.Geohash;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-cell problem counts by status at geohash precisions {@value #MIN_PRECISION}..{@value #MAX_PRECISION},
+ * kept in {@code problem_geo_cell}. Writes are +1/-1 deltas from {@link ProblemService}; coordinate sums
+ * are kept alongside the counts so clusters can be drawn at their centroid. Every problem write touches
+ * the few coarse cells covering its whole region, so cells up to precision {@value #STRIPED_MAX_PRECISION}
+ * are split over {@value #STRIPES} rows picked by problem id and concurrent writes rarely share a row lock;
+ * reads sum the stripes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemGridRepository {
+    static final int MIN_PRECISION = 1;
+    static final int MAX_PRECISION = 7;
+    static final int STRIPED_MAX_PRECISION = 4;
+    static final int STRIPES = 8;
+
+    private static final String ADJUST_SQL = """
+        INSERT INTO problem_geo_cell (precision, cell, status, stripe, problem_count, latitude_sum, longitude_sum)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (precision, cell, status, stripe) DO UPDATE SET
+            problem_count = problem_geo_cell.problem_count + EXCLUDED.problem_count,
+            latitude_sum = problem_geo_cell.latitude_sum + EXCLUDED.latitude_sum,
+            longitude_sum = problem_geo_cell.longitude_sum + EXCLUDED.longitude_sum
+    """;
+
+    private static final String FIND_SQL = """
+        SELECT cell, status, sum(problem_count) AS problem_count,
+               sum(latitude_sum) AS latitude_sum, sum(longitude_sum) AS longitude_sum
+        FROM problem_geo_cell
+        WHERE precision = ? AND cell = ANY(?)
+        GROUP BY cell, status
+        HAVING sum(problem_count) > 0
+    """;
+
+    // address.geohash is stored at a finer precision, so every grid cell is one of its prefixes
+    private static final String REBUILD_SQL = """
+        INSERT INTO problem_geo_cell (precision, cell, status, stripe, problem_count, latitude_sum, longitude_sum)
+        SELECT g.precision, left(a.geohash, g.precision), p.status, 0, count(*), sum(a.latitude), sum(a.longitude)
+        FROM problem p
+        JOIN address a ON a.id = p.address_id
+        CROSS JOIN generate_series(?, ?) AS g(precision)
+        WHERE a.geohash IS NOT NULL
+        GROUP BY g.precision, left(a.geohash, g.precision), p.status
+    """;
+
+    private static final Comparator<CellDelta> LOCK_ORDER = Comparator.comparingInt(CellDelta::getPrecision)
+            .thenComparing(CellDelta::getCell)
+            .thenComparing(delta -> delta.getStatus().name())
+            .thenComparingInt(CellDelta::getStripe);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Adds ({@code delta = 1}) or removes ({@code delta = -1}) one problem at the address in every precision. */
+    public void adjust(Long problemId, Address address, ProblemStatus status, int delta) {
+        GridChange.of(problemId, address, status, delta).ifPresent(change -> adjustAll(List.of(change)));
+    }
+
+    /**
+     * Applies many changes in one batch; changes landing in the same row are summed first. Rows are
+     * written in (precision, cell, status, stripe) order, so concurrent batches lock shared cells in the same
+     * order and cannot deadlock; a status change must therefore send its -1 and +1 in one call.
+     */
+    public void adjustAll(Collection<GridChange> changes) {
+        Map<String, CellDelta> deltas = new LinkedHashMap<>();
+        for (GridChange change : changes) {
+            String geohash = Geohash.encode(change.getLatitude(), change.getLongitude(), MAX_PRECISION);
+            for (int precision = MIN_PRECISION; precision <= MAX_PRECISION; precision++) {
+                String cell = geohash.substring(0, precision);
+                int cellPrecision = precision;
+                int stripe = precision <= STRIPED_MAX_PRECISION ? (int) Math.floorMod(change.getProblemId(), (long) STRIPES) : 0;
+                CellDelta delta = deltas.computeIfAbsent(cell + ":" + change.getStatus() + ":" + stripe,
+                        key -> new CellDelta(cellPrecision, cell, change.getStatus(), stripe, 0, 0, 0));
+                delta.setCount(delta.getCount() + change.getDelta());
+                delta.setLatitudeSum(delta.getLatitudeSum() + change.getDelta() * change.getLatitude());
+                delta.setLongitudeSum(delta.getLongitudeSum() + change.getDelta() * change.getLongitude());
+            }
+        }
+        // a problem moving out of and back into a cell within one batch nets out
+        List<CellDelta> rows = deltas.values().stream()
+                .filter(delta -> delta.getCount() != 0 || delta.getLatitudeSum() != 0 || delta.getLongitudeSum() != 0)
+                .sorted(LOCK_ORDER)
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADJUST_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getPrecision());
+            ps.setString(2, row.getCell());
+            ps.setString(3, row.getStatus().name());
+            ps.setInt(4, row.getStripe());
+            ps.setInt(5, row.getCount());
+            ps.setDouble(6, row.getLatitudeSum());
+            ps.setDouble(7, row.getLongitudeSum());
+        });
+    }
+
+    public List<GridCell> findByCells(int precision, Collection<String> cells) {
+        return jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new GridCell(
+                        rs.getString("cell"),
+                        ProblemStatus.valueOf(rs.getString("status")),
+                        rs.getLong("problem_count"),
+                        rs.getDouble("latitude_sum"),
+                        rs.getDouble("longitude_sum")),
+                precision, cells.toArray(String[]::new));
+    }
+
+    /**
+     * Recomputes every cell from the problem table. The table lock makes concurrent
+     * {@link #adjust} calls wait, so no delta is lost or double counted.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE problem_geo_cell IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM problem_geo_cell");
+        jdbcTemplate.update(REBUILD_SQL, MIN_PRECISION, MAX_PRECISION);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class GridChange {
+        private long problemId;
+        private double latitude;
+        private double longitude;
+        private ProblemStatus status;
+        private int delta;
+
+        /** Empty when the address has no coordinates. */
+        public static Optional<GridChange> of(Long problemId, Address address, ProblemStatus status, int delta) {
+            if (address == null || address.getLatitude() == null || address.getLongitude() == null || status == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new GridChange(problemId, address.getLatitude().doubleValue(), address.getLongitude().doubleValue(), status, delta));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class CellDelta {
+        private int precision;
+        private String cell;
+        private ProblemStatus status;
+        private int stripe;
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class GridCell {
+        private String cell;
+        private ProblemStatus status;
+        private long count;
+        private double latitudeSum;
+        private double longitudeSum;
+    }
+}
@@ -23,6 +23,7 @@ public class ProblemMapper {
         dto.setCategoryId(entity.getCategory() != null ? entity.getCategory().getId() : null);
         dto.setRejectionReason(entity.getRejectionReason());
         dto.setStatus(entity.getStatus());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 
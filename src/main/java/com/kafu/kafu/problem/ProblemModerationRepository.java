@@ -0,0 +1,75 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.City;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Set-based moderation writes. Each decision statement takes the whole batch as arrays and only
+ * touches rows still in {@code PENDING_APPROVAL}, returning the ids it changed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemModerationRepository {
+
+    private static final String FIND_SQL = """
+        SELECT p.id, p.status, p.is_real, p.submission_date, p.category_id, a.city, a.latitude, a.longitude
+        FROM problem p
+        JOIN address a ON a.id = p.address_id
+        WHERE p.id = ANY(?)
+    """;
+
+    private static final String APPROVE_SQL = """
+        UPDATE problem SET status = 'APPROVED', approved_by_user_id = ?, version = version + 1
+        WHERE id = ANY(?) AND status = 'PENDING_APPROVAL' AND is_real IS DISTINCT FROM false
+        RETURNING id
+    """;
+
+    private static final String REJECT_SQL = """
+        UPDATE problem p SET status = 'REJECTED', rejection_reason = v.reason, approved_by_user_id = ?, version = p.version + 1
+        FROM unnest(?::bigint[], ?::text[]) AS v(id, reason)
+        WHERE p.id = v.id AND p.status = 'PENDING_APPROVAL' AND p.is_real IS DISTINCT FROM true
+        RETURNING p.id
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<ModerationState> findStates(Long[] ids) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> {
+            Timestamp submissionDate = rs.getTimestamp("submission_date");
+            String city = rs.getString("city");
+            return new ModerationState(
+                    rs.getLong("id"),
+                    new ProblemSnapshot(
+                            ProblemStatus.valueOf(rs.getString("status")),
+                            (Boolean) rs.getObject("is_real"),
+                            submissionDate != null ? submissionDate.toLocalDateTime() : null,
+                            city != null ? City.valueOf(city) : null,
+                            rs.getObject("category_id", Long.class)),
+                    rs.getObject("latitude", Double.class),
+                    rs.getObject("longitude", Double.class));
+        }, (Object) ids);
+    }
+
+    public List<Long> approve(Long[] ids, Long moderatorId) {
+        return jdbcTemplate.queryForList(APPROVE_SQL, Long.class, moderatorId, ids);
+    }
+
+    public List<Long> reject(Long[] ids, String[] reasons, Long moderatorId) {
+        return jdbcTemplate.queryForList(REJECT_SQL, Long.class, moderatorId, ids, reasons);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ModerationState {
+        private Long id;
+        private ProblemSnapshot snapshot;
+        private Double latitude;
+        private Double longitude;
+    }
+}
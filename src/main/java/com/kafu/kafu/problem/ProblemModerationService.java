@@ -0,0 +1,106 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.exception.ApplicationErrorEnum;
+import com.kafu.kafu.problem.dto.ModerationItemDTO;
+import com.kafu.kafu.problem.dto.ModerationResultDTO;
+import com.kafu.kafu.user.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Approves and rejects many problems in one transaction. Items are validated with the same rules as
+ * {@code PATCH /problems/{id}} ({@link ProblemService#checkModeration}) against one bulk read, then
+ * applied with one UPDATE per decision. An item that another moderator decided in the meantime is
+ * reported as {@link ApplicationErrorEnum#PROBLEM_STATUS_CHANGED} instead of being overwritten.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProblemModerationService {
+    private final ProblemModerationRepository problemModerationRepository;
+    private final ProblemGridRepository problemGridRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public List<ModerationResultDTO> moderate(List<ModerationItemDTO> items) {
+        Long moderatorId = userService.getCurrentUser().getId();
+
+        Map<Long, ProblemModerationRepository.ModerationState> states = problemModerationRepository
+                .findStates(items.stream().map(ModerationItemDTO::getId).distinct().toArray(Long[]::new))
+                .stream()
+                .collect(Collectors.toMap(ProblemModerationRepository.ModerationState::getId, Function.identity()));
+
+        // results in request order; valid items are filled in once the updates have run
+        ModerationResultDTO[] results = new ModerationResultDTO[items.size()];
+        List<ModerationItemDTO> approvals = new ArrayList<>();
+        List<ModerationItemDTO> rejections = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            ModerationItemDTO item = items.get(i);
+            ProblemModerationRepository.ModerationState state = states.get(item.getId());
+            ApplicationErrorEnum error;
+            if (!seen.add(item.getId())) {
+                error = ApplicationErrorEnum.DUPLICATE_MODERATION_ITEM;
+            } else if (state == null) {
+                error = ApplicationErrorEnum.PROBLEM_NOT_FOUND;
+            } else {
+                error = ProblemService.checkModeration(state.getSnapshot().getStatus(), state.getSnapshot().getIsReal(),
+                        item.getStatus(), item.getRejectionReason()).orElse(null);
+            }
+            if (error != null) {
+                results[i] = ModerationResultDTO.failed(item.getId(), item.getStatus(), error);
+            } else {
+                (item.getStatus() == ProblemStatus.APPROVED ? approvals : rejections).add(item);
+            }
+        }
+
+        Set<Long> applied = new HashSet<>();
+        if (!approvals.isEmpty()) {
+            applied.addAll(problemModerationRepository.approve(
+                    approvals.stream().map(ModerationItemDTO::getId).toArray(Long[]::new), moderatorId));
+        }
+        if (!rejections.isEmpty()) {
+            applied.addAll(problemModerationRepository.reject(
+                    rejections.stream().map(ModerationItemDTO::getId).toArray(Long[]::new),
+                    rejections.stream().map(ModerationItemDTO::getRejectionReason).toArray(String[]::new),
+                    moderatorId));
+        }
+
+        List<ProblemGridRepository.GridChange> gridChanges = new ArrayList<>();
+        List<ProblemChangedEvent> events = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ModerationItemDTO item = items.get(i);
+            if (results[i] != null) {
+                continue;
+            }
+            if (!applied.contains(item.getId())) {
+                results[i] = ModerationResultDTO.failed(item.getId(), item.getStatus(), ApplicationErrorEnum.PROBLEM_STATUS_CHANGED);
+                continue;
+            }
+            results[i] = ModerationResultDTO.applied(item.getId(), item.getStatus());
+
+            ProblemModerationRepository.ModerationState state = states.get(item.getId());
+            ProblemSnapshot before = state.getSnapshot();
+            ProblemSnapshot after = new ProblemSnapshot(item.getStatus(), before.getIsReal(),
+                    before.getSubmissionDate(), before.getCity(), before.getCategoryId());
+            events.add(new ProblemChangedEvent(item.getId(), before, after));
+            if (state.getLatitude() != null && state.getLongitude() != null) {
+                gridChanges.add(new ProblemGridRepository.GridChange(item.getId(), state.getLatitude(), state.getLongitude(), before.getStatus(), -1));
+                gridChanges.add(new ProblemGridRepository.GridChange(item.getId(), state.getLatitude(), state.getLongitude(), after.getStatus(), 1));
+            }
+        }
+
+        problemGridRepository.adjustAll(gridChanges);
+        events.forEach(eventPublisher::publishEvent);
+        return List.of(results);
+    }
+}
@@ -5,11 +5,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface ProblemRepository extends JpaRepository<Problem, Long>, JpaSpecificationExecutor<Problem> {
     
     @Query("SELECT p FROM Problem p WHERE p.isReal = true AND p.status != 'PENDING_APPROVAL' AND p.status != 'REJECTED'")
     Page<Problem> findRealProblemsNotPendingApproval(Pageable pageable);
+
+    // one array parameter, so the statement is the same for any number of ids
+    @Query(value = "SELECT * FROM problem WHERE id = ANY(:ids)", nativeQuery = true)
+    List<Problem> findAllByIdAny(@Param("ids") Long[] ids);
 }
@@ -0,0 +1,25 @@
+package com.kafu.kafu.problem;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of the {@code search_vector} column of {@code problem}, which the database generates
+ * from title and description. Kept off {@link Problem} so loading a problem never reads the vector;
+ * {@link ProblemSpecification} joins it only when a search text is given.
+ */
+@Entity
+@Table(name = "problem")
+@Immutable
+@Data
+public class ProblemSearch {
+    @Id
+    private Long id;
+
+    @Column(name = "search_vector", columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String searchVector;
+}
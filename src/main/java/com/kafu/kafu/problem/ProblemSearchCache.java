@@ -0,0 +1,135 @@
+package com.kafu.kafu.problem;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kafu.kafu.address.City;
+import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of {@code GET /problems} result pages, keyed by the normalized search criteria, view and pageable.
+ * <p>
+ * Concurrent requests for the same key share one load: the first caller runs the query, the others
+ * wait on its future. A committed problem change drops the entries whose city, category and status
+ * filters could match the problem before or after the change; filters the key leaves open match anything.
+ * Hit/miss counters are published under {@code cache=problemSearch}.
+ */
+@Component
+public class ProblemSearchCache {
+    private final AsyncCache<SearchKey, Page<?>> cache;
+
+    public ProblemSearchCache(MeterRegistry meterRegistry,
+                              @Value("${problem.search-cache.max-size}") long maxSize,
+                              @Value("${problem.search-cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "problemSearch");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> get(ProblemSearchCriteria criteria, ProblemView view, Pageable pageable, Supplier<Page<T>> loader) {
+        SearchKey key = SearchKey.of(criteria, view, pageable);
+        CompletableFuture<Page<?>> load = new CompletableFuture<>();
+        CompletableFuture<Page<?>> future = cache.get(key, (k, executor) -> load);
+        // the query runs outside the cache's lock, so an invalidation can drop the entry while it is loading
+        if (future == load) {
+            try {
+                load.complete(loader.get());
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return (Page<T>) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProblemChanged(ProblemChangedEvent event) {
+        cache.asMap().keySet().removeIf(key -> key.matches(event.getBefore()) || key.matches(event.getAfter()));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SearchKey {
+        private String searchText;
+        private boolean sortByRelevance;
+        private Boolean forContribution;
+        private Boolean forDonation;
+        private City city;
+        private ProblemStatus status;
+        private Long categoryId;
+        private Long govId;
+        private String govName;
+        private Boolean isReal;
+        private ProblemView view;
+        private int page;
+        private int size;
+        private Sort sort;
+
+        // both text filters compare lower-cased, trimmed values. Only the full-text query also ignores runs of
+        // whitespace; the gov name is matched as a substring and by trigrams, so its inner spacing stays in the key
+        static SearchKey of(ProblemSearchCriteria criteria, ProblemView view, Pageable pageable) {
+            String searchText = normalize(criteria.getSearchText());
+            return new SearchKey(
+                    searchText,
+                    searchText != null && Boolean.TRUE.equals(criteria.getSortByRelevance()),
+                    criteria.getForContribution(),
+                    criteria.getForDonation(),
+                    criteria.getCity(),
+                    criteria.getStatus(),
+                    criteria.getCategoryId(),
+                    criteria.getGovId(),
+                    lowerCase(criteria.getGovName()),
+                    criteria.getIsReal(),
+                    view,
+                    pageable.isPaged() ? pageable.getPageNumber() : -1,
+                    pageable.isPaged() ? pageable.getPageSize() : -1,
+                    pageable.getSort());
+        }
+
+        boolean matches(ProblemSnapshot problem) {
+            return problem != null
+                    && (city == null || city == problem.getCity())
+                    && (status == null || status == problem.getStatus())
+                    && (categoryId == null || categoryId.equals(problem.getCategoryId()));
+        }
+
+        private static String normalize(String text) {
+            if (text == null || text.isBlank()) {
+                return null;
+            }
+            return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+
+        private static String lowerCase(String text) {
+            if (text == null || text.isBlank()) {
+                return null;
+            }
+            return text.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -2,39 +2,77 @@ package com.kafu.kafu.problem;
 
 import com.kafu.kafu.address.Address;
 import com.kafu.kafu.address.AddressService;
+import com.kafu.kafu.common.MultiGetResponse;
 import com.kafu.kafu.exception.ApplicationErrorEnum;
 import com.kafu.kafu.exception.BusinessException;
+import com.kafu.kafu.problem.dto.NearbyProblemDTO;
 import com.kafu.kafu.problem.dto.ProblemDTO;
 import com.kafu.kafu.problem.dto.ProblemDetailsDTO;
 import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
+import com.kafu.kafu.problem.dto.ProblemSummaryDTO;
 import com.kafu.kafu.problem.dto.UserProblemSearchCriteria;
 import com.kafu.kafu.problemcategory.ProblemCategory;
 import com.kafu.kafu.problemcategory.ProblemCategoryService;
 import com.kafu.kafu.user.User;
 import com.kafu.kafu.user.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
 public class ProblemService {
+    static final Sort CURSOR_SORT = Sort.by(Sort.Order.desc("submissionDate"), Sort.Order.desc("id"));
+    static final double MAX_NEARBY_RADIUS_KM = 50;
+    static final int MAX_NEARBY_RESULTS = 200;
+
     private final ProblemRepository problemRepository;
+    private final ProblemSummaryRepository problemSummaryRepository;
+    private final ProblemGeoRepository problemGeoRepository;
+    private final ProblemGridRepository problemGridRepository;
     private final AddressService addressService;
     private final UserService userService;
     private final ProblemCategoryService problemCategoryService;
+    private final ProblemFeedCache problemFeedCache;
+    private final ProblemSearchCache problemSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<Problem> search(ProblemSearchCriteria criteria , Pageable pageable) {
         Specification<Problem> spec = ProblemSpecification.withSearchCriteria(criteria);
         return problemRepository.findAll(spec, pageable);
     }
 
+    public List<Problem> findAllByIds(List<Long> ids) {
+        return problemRepository.findAllByIdAny(MultiGetResponse.distinctIds(ids));
+    }
+
+    public List<NearbyProblemDTO> findNearby(ProblemSearchCriteria criteria, double latitude, double longitude,
+                                             double radiusKm, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be between 0 and " + MAX_NEARBY_RADIUS_KM);
+        }
+        return problemGeoRepository.findNearby(ProblemSpecification.withSearchCriteria(criteria),
+                latitude, longitude, radiusKm, Math.max(1, Math.min(limit, MAX_NEARBY_RESULTS)));
+    }
+
     public Problem findById(Long id) {
         return problemRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.PROBLEM_NOT_FOUND));
@@ -71,12 +109,16 @@ public class ProblemService {
         problem.setCategory(problemCategory);
 
         problem = problemRepository.save(problem);
+        problemGridRepository.adjust(problem.getId(), problem.getAddress(), problem.getStatus(), 1);
+        eventPublisher.publishEvent(new ProblemChangedEvent(problem.getId(), null, ProblemSnapshot.of(problem)));
         return problem;
     }
 
     @Transactional
     public Problem update(Long id, ProblemDTO problemDTO) {
         Problem problem = findById(id);
+        Address previousAddress = problem.getAddress();
+        ProblemSnapshot before = ProblemSnapshot.of(problem);
 
         // Verify that the submitting user exists if it's being updated
         if (problemDTO.getSubmittedByUserId() != null) {
@@ -101,26 +143,45 @@ public class ProblemService {
         ProblemMapper.updateEntity(problem, problemDTO);
 
         problem = problemRepository.save(problem);
+        onChanged(problem, previousAddress, before);
         return problem;
     }
 
     @Transactional
     public void delete(Long id) {
-        problemRepository.findById(id)
+        Problem problem = problemRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.PROBLEM_NOT_FOUND));
         
         try {
             problemRepository.deleteById(id);
+            problemRepository.flush();
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Cannot delete problem as it is being referenced by other entities");
         }
+        problemGridRepository.adjust(id, problem.getAddress(), problem.getStatus(), -1);
+        eventPublisher.publishEvent(new ProblemChangedEvent(id, ProblemSnapshot.of(problem), null));
     }
 
 
     @Transactional
     public Problem patch(Long id, ProblemDTO problemDTO) {
+        return patch(id, problemDTO, null);
+    }
+
+    /**
+     * @param expectedVersion version from the client's {@code If-Match}, or null to skip the precondition.
+     *                        Either way the UPDATE is guarded by the version read here, so a concurrent
+     *                        write makes this one fail rather than be overwritten.
+     */
+    @Transactional
+    public Problem patch(Long id, ProblemDTO problemDTO, Long expectedVersion) {
         Problem problem = findById(id);
+        if (expectedVersion != null && !expectedVersion.equals(problem.getVersion())) {
+            throw new BusinessException(ApplicationErrorEnum.VERSION_MISMATCH);
+        }
         User currentUser = userService.getCurrentUser();
+        Address previousAddress = problem.getAddress();
+        ProblemSnapshot before = ProblemSnapshot.of(problem);
 
         // Handle status-based updates
         if (problemDTO.getStatus() != null) {
@@ -140,7 +201,21 @@ public class ProblemService {
                 problemDTO.getCategoryId() != null
         ) handleDetailsUpdate(problem, problemDTO);
 
-        return problemRepository.save(problem);
+        problem = problemRepository.save(problem);
+        onChanged(problem, previousAddress, before);
+        return problem;
+    }
+
+    // keeps the map grid in step and tells the caches which listings the change touched
+    private void onChanged(Problem problem, Address previousAddress, ProblemSnapshot before) {
+        if (problem.getAddress() != previousAddress || problem.getStatus() != before.getStatus()) {
+            // one batch, so the -1 and +1 rows are locked in the same global order as everyone else's
+            List<ProblemGridRepository.GridChange> changes = new ArrayList<>(2);
+            ProblemGridRepository.GridChange.of(problem.getId(), previousAddress, before.getStatus(), -1).ifPresent(changes::add);
+            ProblemGridRepository.GridChange.of(problem.getId(), problem.getAddress(), problem.getStatus(), 1).ifPresent(changes::add);
+            problemGridRepository.adjustAll(changes);
+        }
+        eventPublisher.publishEvent(new ProblemChangedEvent(problem.getId(), before, ProblemSnapshot.of(problem)));
     }
 
     private void handleStatusUpdate(Problem problem, ProblemDTO problemDTO, User currentUser) {
@@ -152,21 +227,15 @@ public class ProblemService {
 
         switch (next) {
             case APPROVED -> {
-                if (current != ProblemStatus.PENDING_APPROVAL)
-                    throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
-                if (Boolean.FALSE.equals(problem.getIsReal()))
-                    throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
+                checkModeration(current, problem.getIsReal(), next, problemDTO.getRejectionReason())
+                        .ifPresent(error -> { throw new BusinessException(error); });
                 problem.setStatus(ProblemStatus.APPROVED);
                 problem.setApprovedByUser(currentUser);
 
             }
             case REJECTED -> {
-                if (current != ProblemStatus.PENDING_APPROVAL)
-                    throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
-                if (Boolean.TRUE.equals(problem.getIsReal()))
-                    throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
-                if (problemDTO.getRejectionReason() == null || problemDTO.getRejectionReason().trim().isEmpty())
-                    throw new BusinessException(ApplicationErrorEnum.REJECTION_REASON_REQUIRED);
+                checkModeration(current, problem.getIsReal(), next, problemDTO.getRejectionReason())
+                        .ifPresent(error -> { throw new BusinessException(error); });
                 problem.setStatus(ProblemStatus.REJECTED);
                 problem.setRejectionReason(problemDTO.getRejectionReason());
                 problem.setApprovedByUser(currentUser);
@@ -183,6 +252,27 @@ public class ProblemService {
         }
     }
 
+    /** Validates an APPROVED or REJECTED decision; shared by {@link #patch} and batch moderation. */
+    static Optional<ApplicationErrorEnum> checkModeration(ProblemStatus current, Boolean isReal,
+                                                          ProblemStatus next, String rejectionReason) {
+        if (current != ProblemStatus.PENDING_APPROVAL) {
+            return Optional.of(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
+        }
+        return switch (next) {
+            case APPROVED -> Boolean.FALSE.equals(isReal)
+                    ? Optional.of(ApplicationErrorEnum.INVALID_PROBLEM_STATUS)
+                    : Optional.empty();
+            case REJECTED -> {
+                if (Boolean.TRUE.equals(isReal))
+                    yield Optional.of(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
+                if (rejectionReason == null || rejectionReason.trim().isEmpty())
+                    yield Optional.of(ApplicationErrorEnum.REJECTION_REASON_REQUIRED);
+                yield Optional.empty();
+            }
+            default -> Optional.of(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
+        };
+    }
+
     private void handleRealFieldsUpdate(Problem problem, ProblemDTO problemDTO) {
 
         if (problemDTO.getIsReal() != null) {
@@ -229,7 +319,83 @@ public class ProblemService {
 
     }
 
-    public Page<Problem> findRealProblemsNotPendingApproval(Pageable pageable) {
-        return problemRepository.findRealProblemsNotPendingApproval(pageable);
+    // unsorted requests get the feed's newest-first order, so cached pages have a stable boundary
+    public Page<ProblemDTO> findRealProblemsNotPendingApproval(Pageable pageable) {
+        Pageable ordered = withFeedOrder(pageable);
+        return problemFeedCache.get(ProblemView.FULL, ordered,
+                () -> problemRepository.findRealProblemsNotPendingApproval(ordered).map(ProblemMapper::toDTO),
+                ProblemDTO::getId);
+    }
+
+    public Page<ProblemDTO> searchDTOs(ProblemSearchCriteria criteria, Pageable pageable) {
+        return problemSearchCache.get(criteria, ProblemView.FULL, pageable,
+                () -> search(criteria, pageable).map(ProblemMapper::toDTO));
+    }
+
+    public Page<ProblemSummaryDTO> searchSummaries(ProblemSearchCriteria criteria, Pageable pageable) {
+        return problemSearchCache.get(criteria, ProblemView.SUMMARY, pageable,
+                () -> problemSummaryRepository.findAll(ProblemSpecification.withSearchCriteria(criteria), pageable));
+    }
+
+    public Page<ProblemSummaryDTO> searchUserProblemSummaries(UserProblemSearchCriteria criteria, Pageable pageable) {
+        criteria.setUserId(userService.getCurrentUser().getId());
+        return problemSummaryRepository.findAll(ProblemSpecification.fromUserCriteria(criteria), pageable);
+    }
+
+    public Page<ProblemSummaryDTO> findRealProblemSummariesNotPendingApproval(Pageable pageable) {
+        Pageable ordered = withFeedOrder(pageable);
+        return problemFeedCache.get(ProblemView.SUMMARY, ordered,
+                () -> problemSummaryRepository.findAll(ProblemSpecification.realNotPendingApproval(), ordered),
+                ProblemSummaryDTO::getId);
+    }
+
+    private static Pageable withFeedOrder(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), CURSOR_SORT);
+    }
+
+    public Slice<Problem> searchByCursor(ProblemSearchCriteria criteria, String cursor, int size) {
+        return findByCursor(ProblemSpecification.withSearchCriteria(criteria), cursor, size, this::findEntities);
+    }
+
+    public Slice<Problem> searchUserProblemsByCursor(UserProblemSearchCriteria criteria, String cursor, int size) {
+        criteria.setUserId(userService.getCurrentUser().getId());
+        return findByCursor(ProblemSpecification.fromUserCriteria(criteria), cursor, size, this::findEntities);
+    }
+
+    public Slice<Problem> findRealProblemsNotPendingApprovalByCursor(String cursor, int size) {
+        return findByCursor(ProblemSpecification.realNotPendingApproval(), cursor, size, this::findEntities);
+    }
+
+    public Slice<ProblemSummaryDTO> searchSummariesByCursor(ProblemSearchCriteria criteria, String cursor, int size) {
+        return findByCursor(ProblemSpecification.withSearchCriteria(criteria), cursor, size, this::findSummaries);
+    }
+
+    public Slice<ProblemSummaryDTO> searchUserProblemSummariesByCursor(UserProblemSearchCriteria criteria, String cursor, int size) {
+        criteria.setUserId(userService.getCurrentUser().getId());
+        return findByCursor(ProblemSpecification.fromUserCriteria(criteria), cursor, size, this::findSummaries);
+    }
+
+    public Slice<ProblemSummaryDTO> findRealProblemSummariesNotPendingApprovalByCursor(String cursor, int size) {
+        return findByCursor(ProblemSpecification.realNotPendingApproval(), cursor, size, this::findSummaries);
+    }
+
+    // fetches one extra row to detect the next page instead of running a count query
+    private <T> Slice<T> findByCursor(Specification<Problem> spec, String cursor, int size,
+                                      BiFunction<Specification<Problem>, Integer, List<T>> loader) {
+        Specification<Problem> keyset = spec.and(ProblemSpecification.after(ProblemCursor.decode(cursor)));
+        List<T> rows = loader.apply(keyset, size + 1);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size, CURSOR_SORT), hasNext);
+    }
+
+    private List<Problem> findEntities(Specification<Problem> spec, int limit) {
+        return problemRepository.findBy(spec, q -> q.sortBy(CURSOR_SORT).limit(limit).all());
+    }
+
+    private List<ProblemSummaryDTO> findSummaries(Specification<Problem> spec, int limit) {
+        return problemSummaryRepository.findAll(spec, CURSOR_SORT, limit);
     }
 }
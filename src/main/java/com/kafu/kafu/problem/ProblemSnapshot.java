@@ -0,0 +1,33 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.address.City;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/** The fields of a problem that decide which cached listings it appears in. */
+@Data
+@AllArgsConstructor
+public class ProblemSnapshot {
+    private ProblemStatus status;
+    private Boolean isReal;
+    private LocalDateTime submissionDate;
+    private City city;
+    private Long categoryId;
+
+    public static ProblemSnapshot of(Problem problem) {
+        return new ProblemSnapshot(
+                problem.getStatus(),
+                problem.getIsReal(),
+                problem.getSubmissionDate(),
+                problem.getAddress() != null ? problem.getAddress().getCity() : null,
+                problem.getCategory() != null ? problem.getCategory().getId() : null);
+    }
+
+    /** Whether the problem is listed by the public {@code /problems/real} feed. */
+    public boolean isInRealFeed() {
+        return Boolean.TRUE.equals(isReal)
+                && status != ProblemStatus.PENDING_APPROVAL
+                && status != ProblemStatus.REJECTED;
+    }
+}
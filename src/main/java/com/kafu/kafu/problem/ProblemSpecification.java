@@ -3,6 +3,9 @@ package com.kafu.kafu.problem;
 import com.kafu.kafu.problem.dto.ProblemSearchCriteria;
 import com.kafu.kafu.problem.dto.UserProblemSearchCriteria;
 import jakarta.persistence.criteria.*;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
 import org.springframework.data.jpa.domain.Specification;
 
 public class ProblemSpecification {
@@ -12,13 +15,22 @@ public class ProblemSpecification {
             Predicate predicate = cb.conjunction();
 
             if (criteria.getSearchText() != null && !criteria.getSearchText().trim().isEmpty()) {
-                String searchPattern = "%" + criteria.getSearchText().toLowerCase() + "%";
+                // bound values rather than cb.literal, which Hibernate would inline into the SQL
+                HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+                Expression<String> searchText = hcb.value(criteria.getSearchText().trim());
+                // the vector lives on ProblemSearch so plain problem loads never read it
+                JpaEntityJoin<ProblemSearch> search = ((JpaRoot<Problem>) root).join(ProblemSearch.class);
+                search.on(cb.equal(search.get("id"), root.get("id")));
+                Expression<String> searchVector = search.get("searchVector");
                 predicate = cb.and(predicate,
-                    cb.or(
-                        cb.like(cb.lower(root.get("title")), searchPattern),
-                        cb.like(cb.lower(root.get("description")), searchPattern)
-                    )
+                    cb.isTrue(cb.function("fts_match", Boolean.class, searchVector, searchText, searchText))
                 );
+                if (Boolean.TRUE.equals(criteria.getSortByRelevance()) && !isCountQuery(query)) {
+                    query.orderBy(
+                        cb.desc(cb.function("fts_rank", Double.class, searchVector, searchText, searchText)),
+                        cb.desc(root.get("id"))
+                    );
+                }
             }
 
             if (criteria.getForContribution() != null) {
@@ -53,9 +65,9 @@ public class ProblemSpecification {
             if (criteria.getGovName() != null && !criteria.getGovName().trim().isEmpty()) {
                 Join<Object, Object> categoryJoin = root.join("category");
                 Join<Object, Object> govJoin = categoryJoin.join("gov");
-                String searchPattern = "%" + criteria.getGovName().toLowerCase() + "%";
+                Expression<String> govName = ((HibernateCriteriaBuilder) cb).value(criteria.getGovName().trim());
                 predicate = cb.and(predicate,
-                    cb.like(cb.lower(govJoin.get("name")), searchPattern)
+                    cb.isTrue(cb.function("trgm_match", Boolean.class, govJoin.get("name"), govName))
                 );
             }
             if (criteria.getIsReal() != null) {
@@ -66,6 +78,37 @@ public class ProblemSpecification {
         };
     }
 
+    private static boolean isCountQuery(CriteriaQuery<?> query) {
+        return Long.class == query.getResultType() || long.class == query.getResultType();
+    }
+
+    public static Specification<Problem> realNotPendingApproval() {
+        return (root, query, cb) -> cb.and(
+                cb.isTrue(root.get("isReal")),
+                root.get("status").in(ProblemStatus.PENDING_APPROVAL, ProblemStatus.REJECTED).not()
+        );
+    }
+
+    /**
+     * Rows strictly after the cursor in (submissionDate desc, id desc) order. The leading
+     * {@code submissionDate <= ?} gives the index scan its start position; the OR only
+     * filters rows sharing the cursor's timestamp.
+     */
+    public static Specification<Problem> after(ProblemCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            return cb.and(
+                    cb.lessThanOrEqualTo(root.get("submissionDate"), cursor.getSubmissionDate()),
+                    cb.or(
+                            cb.lessThan(root.get("submissionDate"), cursor.getSubmissionDate()),
+                            cb.lessThan(root.get("id"), cursor.getId())
+                    )
+            );
+        };
+    }
+
     public static Specification<Problem> withUserId(Long userId) {
         return (root, query, criteriaBuilder) -> {
             Predicate predicate = criteriaBuilder.conjunction();
@@ -0,0 +1,71 @@
+package com.kafu.kafu.problem;
+
+import com.kafu.kafu.problem.dto.ProblemSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Runs problem specifications into {@link ProblemSummaryDTO} rows. Only the summary columns
+ * are selected and the description excerpt is cut in SQL, so the TEXT column never leaves the database whole.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProblemSummaryRepository {
+    static final int EXCERPT_LENGTH = 200;
+
+    private final EntityManager entityManager;
+    private final ProblemRepository problemRepository;
+
+    public Page<ProblemSummaryDTO> findAll(Specification<Problem> spec, Pageable pageable) {
+        List<ProblemSummaryDTO> content = query(spec, pageable.getSort(), (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> problemRepository.count(spec));
+    }
+
+    public List<ProblemSummaryDTO> findAll(Specification<Problem> spec, Sort sort, int limit) {
+        return query(spec, sort, 0, limit);
+    }
+
+    private List<ProblemSummaryDTO> query(Specification<Problem> spec, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProblemSummaryDTO> query = cb.createQuery(ProblemSummaryDTO.class);
+        Root<Problem> root = query.from(Problem.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.construct(ProblemSummaryDTO.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("status"),
+                join(root, "address").get("city"),
+                join(root, "category").get("name"),
+                root.get("submissionDate"),
+                cb.substring(root.get("description"), 1, EXCERPT_LENGTH)));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // reuses a join the specification already made instead of joining the table twice
+    private static Join<?, ?> join(Root<Problem> root, String attribute) {
+        return root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals(attribute))
+                .findFirst()
+                .orElseGet(() -> root.join(attribute));
+    }
+}
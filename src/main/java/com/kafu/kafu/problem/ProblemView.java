@@ -0,0 +1,7 @@
+package com.kafu.kafu.problem;
+
+/** Shape of the rows returned by the problem list endpoints, chosen with the {@code view} parameter. */
+public enum ProblemView {
+    FULL,
+    SUMMARY
+}
@@ -0,0 +1,19 @@
+package com.kafu.kafu.problem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated listing. Pass {@code nextCursor} back as {@code cursor}
+ * to fetch the following page; it is absent on the last page.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,12 @@
+package com.kafu.kafu.problem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FacetCountDTO {
+    private Long id;
+    private String name;
+    private Long count;
+}
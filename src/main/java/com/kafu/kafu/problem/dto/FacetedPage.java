@@ -0,0 +1,12 @@
+package com.kafu.kafu.problem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+@Data
+@AllArgsConstructor
+public class FacetedPage<T> {
+    private Page<T> page;
+    private ProblemFacetsDTO facets;
+}
@@ -0,0 +1,14 @@
+package com.kafu.kafu.problem.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ModerationBatchDTO {
+    @NotEmpty(message = "Items are required")
+    @Size(max = 1000, message = "Cannot moderate more than 1000 problems at once")
+    private List<@Valid ModerationItemDTO> items;
+}
@@ -0,0 +1,14 @@
+package com.kafu.kafu.problem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Problems leased to the calling moderator; others will not be handed them before {@code leaseExpiresAt}. */
+@Data
+@AllArgsConstructor
+public class ModerationClaimDTO {
+    private List<ProblemDTO> problems;
+    private LocalDateTime leaseExpiresAt;
+}
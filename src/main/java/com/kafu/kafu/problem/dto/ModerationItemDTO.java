@@ -0,0 +1,20 @@
+package com.kafu.kafu.problem.dto;
+
+import com.kafu.kafu.problem.ProblemStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ModerationItemDTO {
+    @NotNull(message = "Problem ID is required")
+    private Long id;
+
+    @NotNull(message = "Status is required")
+    private ProblemStatus status;
+
+    private String rejectionReason;
+}
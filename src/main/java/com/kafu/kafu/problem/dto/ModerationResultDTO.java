@@ -0,0 +1,27 @@
+package com.kafu.kafu.problem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.kafu.kafu.exception.ApplicationErrorEnum;
+import com.kafu.kafu.problem.ProblemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Outcome of one batch moderation item; {@code error} is set when it was not applied. */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+public class ModerationResultDTO {
+    private Long id;
+    private ProblemStatus status;
+    private boolean applied;
+    private ApplicationErrorEnum error;
+    private String message;
+
+    public static ModerationResultDTO applied(Long id, ProblemStatus status) {
+        return new ModerationResultDTO(id, status, true, null, null);
+    }
+
+    public static ModerationResultDTO failed(Long id, ProblemStatus status, ApplicationErrorEnum error) {
+        return new ModerationResultDTO(id, status, false, error, error.getMessage());
+    }
+}
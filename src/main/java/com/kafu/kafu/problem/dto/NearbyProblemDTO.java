@@ -0,0 +1,11 @@
+package com.kafu.kafu.problem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NearbyProblemDTO {
+    private ProblemDTO problem;
+    private Double distanceKm;
+}
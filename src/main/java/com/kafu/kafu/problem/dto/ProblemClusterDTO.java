@@ -0,0 +1,17 @@
+package com.kafu.kafu.problem.dto;
+
+import com.kafu.kafu.problem.ProblemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Map;
+
+/** One map marker: the problems in a geohash cell, placed at their centroid. */
+@Data
+@AllArgsConstructor
+public class ProblemClusterDTO {
+    private String cell;
+    private Double latitude;
+    private Double longitude;
+    private Long count;
+    private Map<ProblemStatus, Long> statusCounts;
+}
@@ -10,6 +10,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -47,4 +48,17 @@ public class ProblemDTO {
 
     @NotNull(message = "Category ID is required")
     private Long categoryId;
+
+    private Long version;
+
+    // read-only; filled in by single-problem reads
+    private List<ProblemFundingDTO> funding;
+
+    // row shape selected by ProblemExportRepository, which has no funding column
+    public ProblemDTO(Long id, String title, String description, Boolean isReal, Boolean forContribution,
+                      Boolean forDonation, LocalDateTime submissionDate, ProblemStatus status, String rejectionReason,
+                      Long addressId, Long submittedByUserId, Long approvedByUserId, Long categoryId, Long version) {
+        this(id, title, description, isReal, forContribution, forDonation, submissionDate, status, rejectionReason,
+                addressId, submittedByUserId, approvedByUserId, categoryId, version, null);
+    }
 }
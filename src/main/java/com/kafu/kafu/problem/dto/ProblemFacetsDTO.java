@@ -0,0 +1,18 @@
+package com.kafu.kafu.problem.dto;
+
+import com.kafu.kafu.address.City;
+import com.kafu.kafu.problem.ProblemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+
+/** Problem counts per facet value for a search; categories and govs are ordered by count. */
+@Data
+@AllArgsConstructor
+public class ProblemFacetsDTO {
+    private Map<ProblemStatus, Long> status;
+    private Map<City, Long> city;
+    private List<FacetCountDTO> category;
+    private List<FacetCountDTO> gov;
+}
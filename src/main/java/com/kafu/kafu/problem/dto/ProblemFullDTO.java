@@ -0,0 +1,20 @@
+package com.kafu.kafu.problem.dto;
+
+import com.kafu.kafu.donation.DonationSummaryDTO;
+import com.kafu.kafu.problemphoto.ProblemPhotoDTO;
+import com.kafu.kafu.problemprogress.dto.ProblemProgressDTO;
+import com.kafu.kafu.solution.dto.SolutionWithSubmitterDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/** Everything the problem page renders, returned by {@code GET /problems/{id}/full}. */
+@Data
+@AllArgsConstructor
+public class ProblemFullDTO {
+    private ProblemDTO problem;
+    private List<ProblemPhotoDTO> photos;
+    private List<ProblemProgressDTO> progress;
+    private List<SolutionWithSubmitterDTO> solutions;
+    private DonationSummaryDTO donations;
+}
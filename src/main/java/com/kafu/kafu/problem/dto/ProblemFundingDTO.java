@@ -0,0 +1,16 @@
+package com.kafu.kafu.problem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Money raised for a problem in one currency, from successful donations. */
+@Data
+@AllArgsConstructor
+public class ProblemFundingDTO {
+    private String currency;
+    private BigDecimal totalAmount;
+    private Long donationCount;
+    private LocalDateTime lastDonationAt;
+}
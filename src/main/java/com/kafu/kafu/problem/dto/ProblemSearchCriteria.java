@@ -12,6 +12,8 @@ public class ProblemSearchCriteria {
 
     @Size(max = 100)
     private String searchText;
+    // order by ts_rank when searchText is given and the request has no explicit sort
+    private Boolean sortByRelevance;
     private Boolean forContribution;
     private Boolean forDonation;
     private City city;
@@ -0,0 +1,22 @@
+package com.kafu.kafu.problem.dto;
+
+import com.kafu.kafu.address.City;
+import com.kafu.kafu.problem.ProblemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/** Card-sized view of a problem; the constructor is used by a JPQL constructor expression. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProblemSummaryDTO {
+    private Long id;
+    private String title;
+    private ProblemStatus status;
+    private City city;
+    private String categoryName;
+    private LocalDateTime submissionDate;
+    private String excerpt;
+}
@@ -2,6 +2,7 @@ package com.kafu.kafu.problemcategory;
 
 import com.kafu.kafu.problemcategory.dto.ProblemCategorySearchCriteria;
 import jakarta.persistence.criteria.*;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
 public class ProblemCategorySpecification {
@@ -9,12 +10,16 @@ public class ProblemCategorySpecification {
     public static Specification<ProblemCategory> withSearchCriteria(ProblemCategorySearchCriteria criteria) {
         return (Root<ProblemCategory> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
             Predicate predicate = cb.conjunction();
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            // closest names first; the name match takes precedence over the gov name match
+            Expression<Double> rank = null;
 
             if (criteria.getName() != null && !criteria.getName().trim().isEmpty()) {
-                String searchPattern = "%" + criteria.getName().toLowerCase() + "%";
+                Expression<String> name = hcb.value(criteria.getName().trim());
                 predicate = cb.and(predicate,
-                    cb.like(cb.lower(root.get("name")), searchPattern)
+                    cb.isTrue(cb.function("trgm_match", Boolean.class, root.get("name"), name))
                 );
+                rank = cb.function("trgm_rank", Double.class, root.get("name"), name);
             }
             
             if (criteria.getGovId() != null) {
@@ -24,10 +29,17 @@ public class ProblemCategorySpecification {
             
             if (criteria.getGovName() != null && !criteria.getGovName().trim().isEmpty()) {
                 Join<Object, Object> govJoin = root.join("gov");
-                String searchPattern = "%" + criteria.getGovName().toLowerCase() + "%";
+                Expression<String> govName = hcb.value(criteria.getGovName().trim());
                 predicate = cb.and(predicate,
-                    cb.like(cb.lower(govJoin.get("name")), searchPattern)
+                    cb.isTrue(cb.function("trgm_match", Boolean.class, govJoin.get("name"), govName))
                 );
+                if (rank == null) {
+                    rank = cb.function("trgm_rank", Double.class, govJoin.get("name"), govName);
+                }
+            }
+
+            if (rank != null && Long.class != query.getResultType()) {
+                query.orderBy(cb.desc(rank), cb.asc(root.get("id")));
             }
             
             return predicate;
@@ -49,6 +49,17 @@ public class ProblemPhotoService {
         return photos;
     }
 
+    // presigned URL goes in presignedUrl and s3Key is left as the key, so no entity is modified
+    public List<ProblemPhotoDTO> findDTOsByProblemIdWithPresignedUrls(Long problemId) {
+        return findByProblemId(problemId).stream()
+                .map(photo -> {
+                    ProblemPhotoDTO dto = ProblemPhotoMapper.toDTO(photo);
+                    dto.setPresignedUrl(s3Service.generatePresignedGetUrl(photo.getS3Key()));
+                    return dto;
+                })
+                .toList();
+    }
+
     @Transactional
     public List<ProblemPhotoDTO> createPhotos(Long problemId, Long progressId, Integer count, String contentType) {
         Problem problem = problemService.findById(problemId);
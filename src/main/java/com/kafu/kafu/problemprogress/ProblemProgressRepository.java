@@ -1,5 +1,6 @@
 package com.kafu.kafu.problemprogress;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -8,5 +9,8 @@ import java.util.Optional;
 @Repository
 public interface ProblemProgressRepository extends JpaRepository<ProblemProgress, Long> {
     List<ProblemProgress> findByProblemId(Long problemId);
+
+    @EntityGraph(attributePaths = "photos")
+    List<ProblemProgress> findWithPhotosByProblemId(Long problemId);
     Optional<ProblemProgress> findByIdAndProblemId(Long id, Long problemId);
 }
@@ -25,6 +25,10 @@ public class ProblemProgressService {
         return problemProgressRepository.findByProblemId(problemId);
     }
 
+    public List<ProblemProgress> findWithPhotosByProblemId(Long problemId) {
+        return problemProgressRepository.findWithPhotosByProblemId(problemId);
+    }
+
     public ProblemProgress findByIdAndProblemId(Long id, Long problemId) {
         return problemProgressRepository.findByIdAndProblemId(id, problemId)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.PROGRESS_NOT_FOUND));
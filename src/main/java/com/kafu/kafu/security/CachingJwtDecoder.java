@@ -0,0 +1,23 @@
+package com.kafu.kafu.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Skips signature verification for tokens that were already verified and are still
+ * within their lifetime; anything else goes through the delegate decoder.
+ */
+@RequiredArgsConstructor
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final DecodedTokenCache decodedTokenCache;
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        return decodedTokenCache.find(token)
+                .map(DecodedToken::getJwt)
+                .orElseGet(() -> delegate.decode(token));
+    }
+}
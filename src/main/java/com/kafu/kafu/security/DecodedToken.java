@@ -0,0 +1,21 @@
+package com.kafu.kafu.security;
+
+import com.kafu.kafu.user.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import java.util.Collection;
+
+/**
+ * Everything the request pipeline derives from a verified bearer token,
+ * computed once per token and shared by the decoder, {@link JwtAuthConverter}
+ * and {@link KeycloakUserSyncFilter}.
+ */
+@Data
+@AllArgsConstructor
+public class DecodedToken {
+    private Jwt jwt;
+    private Collection<GrantedAuthority> authorities;
+    private UserDTO user;
+}
@@ -0,0 +1,77 @@
+package com.kafu.kafu.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caches {@link DecodedToken}s by the SHA-256 of the raw token. Entries live until the
+ * token's {@code exp} claim, so a token is verified and converted once for its whole lifetime.
+ */
+@Component
+public class DecodedTokenCache {
+    private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(5);
+
+    private final Cache<String, DecodedToken> cache;
+
+    public DecodedTokenCache(MeterRegistry meterRegistry,
+                             @Value("${jwt.cache.max-size}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenLifetimeExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "decodedToken");
+    }
+
+    public Optional<DecodedToken> find(String tokenValue) {
+        return Optional.ofNullable(cache.getIfPresent(hash(tokenValue)));
+    }
+
+    public DecodedToken get(Jwt jwt, Function<Jwt, DecodedToken> decoder) {
+        return cache.get(hash(jwt.getTokenValue()), key -> decoder.apply(jwt));
+    }
+
+    private static String hash(String tokenValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(tokenValue.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class TokenLifetimeExpiry implements Expiry<String, DecodedToken> {
+        @Override
+        public long expireAfterCreate(String key, DecodedToken value, long currentTime) {
+            Instant expiresAt = value.getJwt().getExpiresAt();
+            if (expiresAt == null) {
+                return DEFAULT_LIFETIME.toNanos();
+            }
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
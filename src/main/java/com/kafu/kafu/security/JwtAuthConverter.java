@@ -1,5 +1,7 @@
 package com.kafu.kafu.security;
 
+import com.kafu.kafu.user.UserDTO;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
@@ -18,8 +20,11 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Component
+@RequiredArgsConstructor
 public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+    private final DecodedTokenCache decodedTokenCache;
+
     private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter =
             new JwtGrantedAuthoritiesConverter();
 
@@ -30,18 +35,33 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
 
     @Override
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
-        Collection<GrantedAuthority> authorities = Stream.concat(
-                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
-                extractResourceRoles(jwt).stream()
-        ).collect(Collectors.toSet());
+        DecodedToken decodedToken = decodedTokenCache.get(jwt, this::decode);
 
         return new JwtAuthenticationToken(
-                jwt,
-                authorities,
+                decodedToken.getJwt(),
+                decodedToken.getAuthorities(),
                 getPrincipleClaimName(jwt)
         );
     }
 
+    private DecodedToken decode(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = Stream.concat(
+                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
+                extractResourceRoles(jwt).stream()
+        ).collect(Collectors.toUnmodifiableSet());
+
+        return new DecodedToken(jwt, authorities, extractUser(jwt));
+    }
+
+    static UserDTO extractUser(Jwt jwt) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setEmail(jwt.getClaimAsString("email"));
+        userDTO.setKeycloakId(jwt.getSubject());
+        userDTO.setFirstName(jwt.getClaimAsString("given_name"));
+        userDTO.setLastName(jwt.getClaimAsString("family_name"));
+        return userDTO;
+    }
+
     private String getPrincipleClaimName(Jwt jwt) {
         String claimName = JwtClaimNames.SUB;
         if (principleAttribute != null) {
@@ -1,8 +1,12 @@
 package com.kafu.kafu.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoders;
+import org.springframework.security.oauth2.jwt.SupplierJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import java.util.Collections;
 import java.util.List;
@@ -27,4 +31,16 @@ public class JwtConfig {
 
         return converter;
     }
+
+    /**
+     * Same lazily-initialised issuer decoder Spring Boot would create, wrapped so that a
+     * token is only signature-checked once within its lifetime.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            DecodedTokenCache decodedTokenCache) {
+        JwtDecoder delegate = new SupplierJwtDecoder(() -> JwtDecoders.fromIssuerLocation(issuerUri));
+        return new CachingJwtDecoder(delegate, decodedTokenCache);
+    }
 }
@@ -1,16 +1,20 @@
 package com.kafu.kafu.security;
 
-import com.kafu.kafu.user.User;
+import com.kafu.kafu.user.CurrentUserHolder;
 import com.kafu.kafu.user.UserDTO;
 import com.kafu.kafu.user.UserService;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.kafu.kafu.user.UserSnapshot;
+import com.kafu.kafu.user.UserSnapshotCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
@@ -21,6 +25,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class KeycloakUserSyncFilter extends OncePerRequestFilter {
     private final UserService userService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final CurrentUserHolder currentUserHolder;
+    private final DecodedTokenCache decodedTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -41,52 +48,53 @@ public class KeycloakUserSyncFilter extends OncePerRequestFilter {
             return;
         }
 
-        UserDTO userDTO = getUserDetails(token);
+        UserDTO userDTO = getUserDetails();
         if(userDTO != null)
         {
-
-            Optional<User> useroptional = userService.findByEmail(userDTO.getEmail());
-            boolean userExists = (useroptional.isPresent());
-
-            User user;
-            if (!userExists) {
-                user = userService.create(userDTO);
-                log.info("User registered successfully");
-            } else {
-                user = useroptional.get();
-                log.info("User already exists, skipping sync");
+            Optional<UserSnapshot> snapshot = userSnapshotCache.get(userDTO.getKeycloakId())
+                    .or(() -> syncUser(userDTO));
+            if (snapshot.isEmpty()) {
+                // deleted users keep a valid token until it expires; they must not be provisioned again
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                response.getWriter().write("User is deleted or conflicts with an existing account");
+                return;
             }
+            Long userId = snapshot.get().getId();
+            currentUserHolder.setUserId(userId);
 
-
-            request = new CustomHeaderRequestWrapper(request, "X-User-ID", user.getId().toString());//this contains user id in database not keycloak id
+            request = new CustomHeaderRequestWrapper(request, "X-User-ID", userId.toString());//this contains user id in database not keycloak id
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private Optional<UserSnapshot> syncUser(UserDTO userDTO) {
+        // Normally already provisioned by UserProvisioningJob; this is a single atomic upsert either way
+        Optional<UserSnapshot> snapshot = userService.provision(userDTO);
+        snapshot.ifPresent(userSnapshotCache::put);
+        return snapshot;
+    }
+
     private boolean isPermittedEndpoint(String path) {
         return path.startsWith("/swagger-ui/") || path.equals("/swagger-ui") ||
                path.startsWith("/v3/api-docs/") || path.equals("/v3/api-docs")||
                path.startsWith("/webhook/");
     }
 
-    private UserDTO getUserDetails(String token) {
-        if (token == null) return null;
-
-        try {
-            String tokenWithoutBearer = token.replace("Bearer ", "").trim();
-            SignedJWT signedJWT = SignedJWT.parse(tokenWithoutBearer);
-            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
-
-            UserDTO userDTO = new UserDTO();
-            userDTO.setEmail(claims.getStringClaim("email"));
-            userDTO.setKeycloakId(claims.getStringClaim("sub"));
-            userDTO.setFirstName(claims.getStringClaim("given_name"));
-            userDTO.setLastName(claims.getStringClaim("family_name"));
-            return userDTO;
-        } catch (Exception e) {
-            log.error("Error parsing JWT token", e);
+    /**
+     * Reads the caller from the token the resource server already verified and
+     * {@link JwtAuthConverter} already converted, instead of parsing the header again.
+     * Falls back to the claims when the cache entry is already gone (evicted, or the token
+     * is inside the decoder's clock-skew window past {@code exp}).
+     */
+    private UserDTO getUserDetails() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuthentication)) {
             return null;
         }
+        Jwt jwt = jwtAuthentication.getToken();
+        return decodedTokenCache.find(jwt.getTokenValue())
+                .map(DecodedToken::getUser)
+                .orElseGet(() -> JwtAuthConverter.extractUser(jwt));
     }
 }
@@ -53,4 +53,9 @@ public class Solution {
     private User acceptedByUserId;
 
     private LocalDate creationDate;
+
+    // bumped on every update; a write carrying a stale version fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -1,10 +1,13 @@
 package com.kafu.kafu.solution;
 
+import com.kafu.kafu.common.ETags;
 import com.kafu.kafu.solution.dto.SolutionDTO;
+import com.kafu.kafu.solution.dto.SolutionStatusUpdateDTO;
 import com.kafu.kafu.solution.dto.SolutionWithSubmitterDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -18,7 +21,8 @@ public class SolutionController {
     @Operation(summary = "findById",description = "find solution by id")
     @GetMapping("/{id}")
     public ResponseEntity<SolutionDTO> findById(@PathVariable Long problemId , @PathVariable Long id) {
-        return ResponseEntity.ok(SolutionMapper.toDTO(solutionService.findById(id)));
+        Solution solution = solutionService.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(solution.getVersion())).body(SolutionMapper.toDTO(solution));
     }
 
     @GetMapping("/me")
@@ -45,6 +49,16 @@ public class SolutionController {
         return ResponseEntity.ok(SolutionMapper.toDTO(solutionService.update(id, solutionDTO)));
     }
 
+    // If-Match: "<version>" from a previous response makes the change fail with 412 if the solution changed since
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<SolutionDTO> updateStatus(@PathVariable Long problemId,
+                                                    @PathVariable Long id,
+                                                    @Valid @RequestBody SolutionStatusUpdateDTO request,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Solution solution = solutionService.updateStatus(id, request.getStatus(), ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(solution.getVersion())).body(SolutionMapper.toDTO(solution));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long problemId,@PathVariable Long id) {
         solutionService.delete(id);
@@ -23,6 +23,7 @@ public class SolutionMapper {
         dto.setProposedByUserId(entity.getProposedByUserId() != null ? entity.getProposedByUserId().getId() : null);
         dto.setAcceptedByUserId(entity.getAcceptedByUserId() != null ? entity.getAcceptedByUserId().getId() : null);
         dto.setCreationDate(entity.getCreationDate());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 
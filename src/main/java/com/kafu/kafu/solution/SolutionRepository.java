@@ -1,9 +1,12 @@
 package com.kafu.kafu.solution;
 
 import com.kafu.kafu.solution.dto.SolutionWithSubmitterDTO;
+import com.kafu.kafu.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -23,4 +26,17 @@ public interface SolutionRepository extends JpaRepository<Solution, Long>, JpaSp
         WHERE s.problem.id = :problemId
     """)
     List<SolutionWithSubmitterDTO> findSolutionWithSubmitterByProblemId(Long problemId);
+
+    // applies only if the solution is still in the status and version it was read with; returns 0 otherwise
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Solution s
+        SET s.status = :next, s.acceptedByUserId = :acceptedBy, s.version = s.version + 1
+        WHERE s.id = :id AND s.status = :current AND s.version = :version
+    """)
+    int transitionStatus(@Param("id") Long id,
+                         @Param("current") SolutionStatus current,
+                         @Param("next") SolutionStatus next,
+                         @Param("acceptedBy") User acceptedBy,
+                         @Param("version") Long version);
 }
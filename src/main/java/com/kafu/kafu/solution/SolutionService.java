@@ -5,6 +5,7 @@ import com.kafu.kafu.exception.BusinessException;
 import com.kafu.kafu.problem.ProblemService;
 import com.kafu.kafu.solution.dto.SolutionDTO;
 import com.kafu.kafu.solution.dto.SolutionWithSubmitterDTO;
+import com.kafu.kafu.user.User;
 import com.kafu.kafu.user.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -95,32 +96,35 @@ public class SolutionService {
         }
     }
 
+    /**
+     * Runs the transition as one conditional UPDATE on the status and version that were validated, so of two
+     * moderators deciding at once only the first succeeds; the other gets {@code SOLUTION_STATUS_CHANGED}.
+     *
+     * @param expectedVersion version from the client's {@code If-Match}, or null to skip the precondition
+     */
     @Transactional
-    public Solution updateStatus(Long id, SolutionStatus newStatus) {
+    public Solution updateStatus(Long id, SolutionStatus newStatus, Long expectedVersion) {
         Solution solution = findById(id);
+        if (expectedVersion != null && !expectedVersion.equals(solution.getVersion())) {
+            throw new BusinessException(ApplicationErrorEnum.VERSION_MISMATCH);
+        }
         SolutionStatus current = solution.getStatus();
+        User acceptedBy = solution.getAcceptedByUserId();
 
         switch (newStatus) {
-            case APPROVED -> {
+            case APPROVED, REJECTED -> {
                 if (current != SolutionStatus.PENDING_APPROVAL)
                     throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
-                solution.setStatus(SolutionStatus.APPROVED);
-                solution.setAcceptedByUserId(userService.getCurrentUser());
+                acceptedBy = userService.getCurrentUser();
             }
-            case REJECTED -> {
-                if (current != SolutionStatus.PENDING_APPROVAL)
-                    throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
-                solution.setStatus(SolutionStatus.REJECTED);
-                solution.setAcceptedByUserId(userService.getCurrentUser());
+            case PENDING_FUNDING, WORK_IN_PROGRESS, RESOLVED -> {
             }
-            case PENDING_FUNDING ->
-                solution.setStatus(SolutionStatus.PENDING_FUNDING);
-            case WORK_IN_PROGRESS ->
-                solution.setStatus(SolutionStatus.WORK_IN_PROGRESS);
-            case RESOLVED ->
-                solution.setStatus(SolutionStatus.RESOLVED);
             default -> throw new BusinessException(ApplicationErrorEnum.INVALID_PROBLEM_STATUS);
         }
-        return solutionRepository.save(solution);
+
+        if (solutionRepository.transitionStatus(id, current, newStatus, acceptedBy, solution.getVersion()) == 0) {
+            throw new BusinessException(ApplicationErrorEnum.SOLUTION_STATUS_CHANGED);
+        }
+        return findById(id);
     }
 }
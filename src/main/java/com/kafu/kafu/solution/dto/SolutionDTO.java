@@ -35,4 +35,6 @@ public class SolutionDTO {
     private Long acceptedByUserId;
 
     private LocalDate creationDate;
+
+    private Long version;
 }
@@ -0,0 +1,13 @@
+package com.kafu.kafu.user;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkDeleteDTO {
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 1000, message = "Cannot delete more than 1000 users at once")
+    private List<Long> userIds;
+}
@@ -0,0 +1,14 @@
+package com.kafu.kafu.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRoleResultDTO {
+    private Long userId;
+    private boolean success;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.kafu.kafu.user;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkRoleUpdateDTO {
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 1000, message = "Cannot update more than 1000 users at once")
+    private List<Long> userIds;
+
+    @NotBlank(message = "Role is required")
+    private String role;
+}
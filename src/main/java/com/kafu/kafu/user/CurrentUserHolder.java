@@ -0,0 +1,18 @@
+package com.kafu.kafu.user;
+
+import lombok.Data;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Holds the caller's local user for the lifetime of one HTTP request so that
+ * {@link UserService#getCurrentUser()} hits the database at most once per request.
+ * The id is seeded by {@code KeycloakUserSyncFilter}; the entity is loaded lazily.
+ */
+@Component
+@RequestScope
+@Data
+public class CurrentUserHolder {
+    private Long userId;
+    private User user;
+}
@@ -0,0 +1,59 @@
+package com.kafu.kafu.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
+
+/**
+ * Caches Keycloak client UUIDs and client role representations. Both change only when
+ * the realm is reconfigured, so role administration does not need to look them up per user.
+ */
+@Component
+public class KeycloakRoleCache {
+    private final Keycloak keycloak;
+    private final String realm;
+    private final Cache<String, String> clientUuids;
+    private final Cache<String, RoleRepresentation> clientRoles;
+
+    public KeycloakRoleCache(Keycloak keycloak,
+                             MeterRegistry meterRegistry,
+                             @Value("${keycloak.realm}") String realm,
+                             @Value("${keycloak.admin.cache-ttl}") Duration ttl) {
+        this.keycloak = keycloak;
+        this.realm = realm;
+        this.clientUuids = Caffeine.newBuilder().expireAfterWrite(ttl).recordStats().build();
+        this.clientRoles = Caffeine.newBuilder().expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, clientUuids, "keycloakClientUuid");
+        CaffeineCacheMetrics.monitor(meterRegistry, clientRoles, "keycloakClientRole");
+    }
+
+    public String getClientUuid(String clientId) {
+        return clientUuids.get(clientId, id -> {
+            var clients = keycloak.realm(realm).clients().findByClientId(id);
+            if (clients.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Keycloak client '" + id + "' does not exist in realm: " + realm);
+            }
+            return clients.get(0).getId();
+        });
+    }
+
+    public RoleRepresentation getClientRole(String clientId, String role) {
+        String clientUuid = getClientUuid(clientId);
+        return clientRoles.get(clientUuid + ":" + role, key -> {
+            try {
+                return keycloak.realm(realm).clients().get(clientUuid).roles().get(role).toRepresentation();
+            } catch (Exception e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role '" + role + "' does not exist in Keycloak client: " + clientId);
+            }
+        });
+    }
+}
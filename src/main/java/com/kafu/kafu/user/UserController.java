@@ -1,5 +1,6 @@
 package com.kafu.kafu.user;
 
+import com.kafu.kafu.common.MultiGetResponse;
 import com.kafu.kafu.donation.DonationDTO;
 import com.kafu.kafu.donation.DonationMapper;
 import com.kafu.kafu.donation.DonationService;
@@ -17,8 +18,15 @@ public class UserController {
     private final UserService userService;
     private final UserFileService userFileService;
     private final DonationService donationService;
+    private final UserProvisioningJob userProvisioningJob;
 
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResponse<UserDTO>> findAllByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(MultiGetResponse.of(ids, userService.findAllByIds(ids), User::getId,
+                user -> UserMapper.toDTO(userService.replaceUrlsWithPresigned(user))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> findById(@PathVariable Long id) {
         User user = userService.findById(id);
@@ -40,6 +48,14 @@ public class UserController {
         userService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "bulkDelete",description = "soft-delete many users; Keycloak accounts are removed in the background")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<Void> bulkDelete(@Valid @RequestBody BulkDeleteDTO request) {
+        userService.deleteAll(request.getUserIds());
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "associateUser",description = "add a user to a gov entity")
     @PostMapping("/{userId}/associate-user")
     public ResponseEntity<Void> associateUser(@RequestParam Long govId, @PathVariable Long userId) {
@@ -89,8 +105,31 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "bulkAddRole",description = "assign a role to many users in one call")
+    @PutMapping("/bulk/add-role")
+    public ResponseEntity<List<BulkRoleResultDTO>> bulkAddRole(@Valid @RequestBody BulkRoleUpdateDTO request) {
+        return ResponseEntity.ok(userService.updateRoleForUsers(request.getUserIds(), request.getRole(), true));
+    }
+
+    @Operation(summary = "bulkRemoveRole",description = "revoke a role from many users in one call")
+    @PutMapping("/bulk/remove-role")
+    public ResponseEntity<List<BulkRoleResultDTO>> bulkRemoveRole(@Valid @RequestBody BulkRoleUpdateDTO request) {
+        return ResponseEntity.ok(userService.updateRoleForUsers(request.getUserIds(), request.getRole(), false));
+    }
+
+    @Operation(summary = "provisionUsers",description = "create local users for all Keycloak accounts, returns the number created")
+    @PostMapping("/provision")
+    public ResponseEntity<Integer> provisionUsers() {
+        return ResponseEntity.ok(userProvisioningJob.provisionAll());
+    }
+
     @GetMapping
-    public ResponseEntity<List<UserDTO>> findAll() {
-        return ResponseEntity.ok(userService.findAll());
+    public ResponseEntity<List<UserDTO>> findAll(@RequestParam(required = false) String role) {
+        return ResponseEntity.ok(userService.findAll(role));
+    }
+
+    @GetMapping("/{userId}/roles")
+    public ResponseEntity<List<String>> findRoles(@PathVariable Long userId) {
+        return ResponseEntity.ok(userService.findRolesByUserId(userId));
     }
 }
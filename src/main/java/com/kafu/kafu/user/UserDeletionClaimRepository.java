@@ -0,0 +1,63 @@
+package com.kafu.kafu.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Leases due {@link UserDeletionTask}s. Claiming locks candidate rows with {@code FOR UPDATE SKIP LOCKED}
+ * and pushes {@code next_attempt_at} past the processing window, so concurrent workers never get the same
+ * task; a lease that runs out makes the task due again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserDeletionClaimRepository {
+
+    // timestamps come from the caller, like the rest of user_deletion_task, not from the database clock
+    private static final String CLAIM_SQL = """
+        WITH next AS (
+            SELECT id
+            FROM user_deletion_task
+            WHERE completed_at IS NULL AND next_attempt_at <= ?
+            ORDER BY next_attempt_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE user_deletion_task t
+        SET next_attempt_at = ?
+        FROM next
+        WHERE t.id = next.id
+        RETURNING t.id, t.user_id, t.keycloak_id, t.attempts
+    """;
+
+    private static final String RETRY_SQL = """
+        UPDATE user_deletion_task SET attempts = attempts + 1, next_attempt_at = ?, last_error = ?
+        WHERE id = ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<UserDeletionTask> claim(LocalDateTime now, int batchSize, LocalDateTime leaseUntil) {
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            UserDeletionTask task = new UserDeletionTask();
+            task.setId(rs.getLong("id"));
+            task.setUserId(rs.getLong("user_id"));
+            task.setKeycloakId(rs.getString("keycloak_id"));
+            task.setAttempts(rs.getInt("attempts"));
+            return task;
+        }, Timestamp.valueOf(now), batchSize, Timestamp.valueOf(leaseUntil));
+    }
+
+    /** Closes the task; {@code error} records why it was given up instead of done. */
+    public void complete(Long id, LocalDateTime completedAt, String error) {
+        jdbcTemplate.update("UPDATE user_deletion_task SET completed_at = ?, last_error = ? WHERE id = ?",
+                Timestamp.valueOf(completedAt), error, id);
+    }
+
+    public void retry(Long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(RETRY_SQL, Timestamp.valueOf(nextAttemptAt), error, id);
+    }
+}
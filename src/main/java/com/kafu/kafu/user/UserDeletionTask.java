@@ -0,0 +1,39 @@
+package com.kafu.kafu.user;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox record for removing a soft-deleted user from Keycloak. Written in the same
+ * transaction as the soft delete and processed by {@link UserDeletionWorker}.
+ */
+@Entity
+@Table(name = "user_deletion_task")
+@Data
+public class UserDeletionTask {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "keycloak_id", nullable = false, length = 50)
+    private String keycloakId;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
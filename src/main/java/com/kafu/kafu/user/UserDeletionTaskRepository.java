@@ -0,0 +1,8 @@
+package com.kafu.kafu.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDeletionTaskRepository extends JpaRepository<UserDeletionTask, Long> {
+}
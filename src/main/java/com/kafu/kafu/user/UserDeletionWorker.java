@@ -0,0 +1,76 @@
+package com.kafu.kafu.user;
+
+import com.kafu.kafu.common.Retries;
+import jakarta.ws.rs.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the user deletion outbox: logs the user out of Keycloak and removes the account,
+ * retrying failures with capped exponential backoff up to {@code keycloak.admin.deletion-max-attempts}.
+ * A task that keeps failing is closed with its {@code last_error}; the local row stays deleted and the
+ * Keycloak account has to be removed by hand. Tasks are leased before the Keycloak calls,
+ * so concurrent instances never process the same task, and no DB connection is held during those
+ * calls. A user that is already gone from Keycloak counts as done.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserDeletionWorker {
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final Keycloak keycloak;
+    private final UserDeletionClaimRepository userDeletionClaimRepository;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${keycloak.admin.deletion-batch-size}")
+    private int batchSize;
+
+    @Value("${keycloak.admin.deletion-lease}")
+    private Duration lease;
+
+    @Value("${keycloak.admin.deletion-max-attempts}")
+    private int maxAttempts;
+
+    @Scheduled(fixedDelayString = "${keycloak.admin.deletion-interval}")
+    public void processDueTasks() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserDeletionTask> tasks = userDeletionClaimRepository.claim(now, batchSize, now.plus(lease));
+        for (UserDeletionTask task : tasks) {
+            process(task);
+        }
+    }
+
+    private void process(UserDeletionTask task) {
+        try {
+            var userResource = keycloak.realm(realm).users().get(task.getKeycloakId());
+            userResource.logout();
+            userResource.remove();
+            userDeletionClaimRepository.complete(task.getId(), LocalDateTime.now(), null);
+        } catch (NotFoundException e) {
+            userDeletionClaimRepository.complete(task.getId(), LocalDateTime.now(), null);
+        } catch (Exception e) {
+            int attempts = task.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                userDeletionClaimRepository.complete(task.getId(), LocalDateTime.now(),
+                        Retries.truncateError("Gave up after " + attempts + " attempts: " + e.getMessage()));
+                log.error("Gave up removing user {} from Keycloak after {} attempts", task.getUserId(), attempts, e);
+                return;
+            }
+            Duration delay = Retries.backoff(attempts, INITIAL_BACKOFF, MAX_BACKOFF);
+            userDeletionClaimRepository.retry(task.getId(), LocalDateTime.now().plus(delay),
+                    Retries.truncateError(e.getMessage()));
+            log.warn("Keycloak deletion of user {} failed (attempt {})", task.getUserId(), attempts, e);
+        }
+    }
+}
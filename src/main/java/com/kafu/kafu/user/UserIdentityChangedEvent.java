@@ -0,0 +1,14 @@
+package com.kafu.kafu.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link UserService} when a user's email changes or the user is deleted, so the
+ * snapshot cached under {@code keycloakId} is dropped once the change has committed.
+ */
+@Data
+@AllArgsConstructor
+public class UserIdentityChangedEvent {
+    private String keycloakId;
+}
@@ -0,0 +1,60 @@
+package com.kafu.kafu.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Pre-provisions local users for every Keycloak account, so a user's first request does
+ * not pay for creating their row. Runs periodically and can be triggered after a signup campaign.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserProvisioningJob {
+    private final Keycloak keycloak;
+    private final UserProvisioningRepository userProvisioningRepository;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${keycloak.admin.sync-page-size}")
+    private int pageSize;
+
+    @Scheduled(fixedDelayString = "${keycloak.admin.user-provisioning-interval}", initialDelayString = "${keycloak.admin.user-provisioning-interval}")
+    public int provisionAll() {
+        UsersResource users = keycloak.realm(realm).users();
+        int inserted = 0;
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = users.list(first, pageSize);
+            List<UserDTO> batch = page.stream()
+                    .filter(user -> user.getEmail() != null)
+                    .map(UserProvisioningJob::toDTO)
+                    .toList();
+            if (!batch.isEmpty()) {
+                inserted += userProvisioningRepository.insertMissing(batch, pageSize);
+            }
+            first += pageSize;
+        } while (page.size() == pageSize);
+
+        log.info("User provisioning finished: {} new users", inserted);
+        return inserted;
+    }
+
+    private static UserDTO toDTO(UserRepresentation representation) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setKeycloakId(representation.getId());
+        userDTO.setEmail(representation.getEmail());
+        userDTO.setFirstName(representation.getFirstName());
+        userDTO.setLastName(representation.getLastName());
+        return userDTO;
+    }
+}
@@ -0,0 +1,98 @@
+package com.kafu.kafu.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Set-based inserts of Keycloak users into {@code users}. Existing rows (same email or
+ * keycloak id) are left untouched so local profile edits are never overwritten, and
+ * deleted users are never inserted again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserProvisioningRepository {
+    // soft-deleted users keep their Keycloak account until UserDeletionWorker removes it (or gives up), and their
+    // row is renamed to deleted_*, so ON CONFLICT alone would bring them back as a new active user
+    private static final String NOT_DELETED = """
+        NOT EXISTS (SELECT 1 FROM user_deletion_task t WHERE t.keycloak_id = ? AND t.completed_at IS NULL)
+        AND NOT EXISTS (SELECT 1 FROM users u WHERE u.keycloak_id = 'deleted_' || ? AND u.deleted)
+    """;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO users (id, keycloak_id, first_name, last_name, email, deleted)
+        SELECT nextval('users_seq'), ?, ?, ?, ?, false
+        WHERE %s
+        ON CONFLICT DO NOTHING
+    """.formatted(NOT_DELETED);
+
+    private static final String UPSERT_RETURNING_SQL = """
+        WITH inserted AS (
+            INSERT INTO users (id, keycloak_id, first_name, last_name, email, deleted)
+            SELECT nextval('users_seq'), ?, ?, ?, ?, false
+            WHERE %s
+            ON CONFLICT DO NOTHING
+            RETURNING id, keycloak_id, email
+        )
+        SELECT id, keycloak_id, email FROM inserted
+        UNION ALL
+        SELECT id, keycloak_id, email FROM users WHERE keycloak_id = ?
+        LIMIT 1
+    """.formatted(NOT_DELETED);
+
+    private static final String FIND_BY_KEYCLOAK_ID_SQL =
+            "SELECT id, keycloak_id, email FROM users WHERE keycloak_id = ?";
+
+    private static final RowMapper<UserSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) ->
+            new UserSnapshot(rs.getLong("id"), rs.getString("keycloak_id"), rs.getString("email"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return number of users actually inserted
+     */
+    public int insertMissing(List<UserDTO> users, int batchSize) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, users, batchSize, (ps, user) -> {
+            ps.setString(1, user.getKeycloakId());
+            ps.setString(2, Objects.requireNonNullElse(user.getFirstName(), ""));
+            ps.setString(3, Objects.requireNonNullElse(user.getLastName(), ""));
+            ps.setString(4, user.getEmail());
+            ps.setString(5, user.getKeycloakId());
+            ps.setString(6, user.getKeycloakId());
+        });
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted += Math.max(count, 0);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Inserts the user if needed and returns the row owning its keycloak id, in one statement.
+     * Safe against concurrent first requests for the same user. Empty when the user was deleted
+     * or another account already holds the email.
+     */
+    public Optional<UserSnapshot> upsertAndGet(UserDTO user) {
+        List<UserSnapshot> rows = jdbcTemplate.query(UPSERT_RETURNING_SQL, SNAPSHOT_MAPPER,
+                user.getKeycloakId(),
+                Objects.requireNonNullElse(user.getFirstName(), ""),
+                Objects.requireNonNullElse(user.getLastName(), ""),
+                user.getEmail(),
+                user.getKeycloakId(),
+                user.getKeycloakId(),
+                user.getKeycloakId());
+        if (!rows.isEmpty()) {
+            return Optional.of(rows.get(0));
+        }
+        // A concurrent insert committed after this statement's snapshot was taken; read it now
+        return jdbcTemplate.query(FIND_BY_KEYCLOAK_ID_SQL, SNAPSHOT_MAPPER, user.getKeycloakId())
+                .stream()
+                .findFirst();
+    }
+}
@@ -1,7 +1,10 @@
 package com.kafu.kafu.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +13,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     Optional<User> findByKeycloakId(String keycloakId);
     boolean existsByKeycloakId(String keycloakId);
+
+    // one array parameter, so any number of ids stays under the bind parameter limit
+    @Query(value = "SELECT id FROM users WHERE keycloak_id = ANY(:keycloakIds)", nativeQuery = true)
+    List<Long> findIdsByKeycloakIdAny(@Param("keycloakIds") String[] keycloakIds);
+
+    @Query("SELECT u FROM User u, UserRole ur WHERE ur.id.userId = u.id AND ur.id.role = :role")
+    List<User> findAllByRole(@Param("role") String role);
+
+    @Query(value = "SELECT * FROM users WHERE id = ANY(:ids)", nativeQuery = true)
+    List<User> findAllByIdAny(@Param("ids") Long[] ids);
 }
@@ -0,0 +1,18 @@
+package com.kafu.kafu.user;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Local mirror of a Keycloak client role assignment, so role lookups do not need the admin API.
+ * Written whenever roles change through {@link UserService} and reconciled by {@link UserRoleSyncJob}.
+ */
+@Entity
+@Table(name = "user_role")
+@Data
+public class UserRole {
+    @EmbeddedId
+    private UserRoleId id;
+}
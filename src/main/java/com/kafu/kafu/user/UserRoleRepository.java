@@ -0,0 +1,39 @@
+package com.kafu.kafu.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+@Repository
+public interface UserRoleRepository extends JpaRepository<UserRole, UserRoleId> {
+
+    @Query("SELECT ur.id.role FROM UserRole ur WHERE ur.id.userId = :userId")
+    List<String> findRolesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT ur.id.userId FROM UserRole ur WHERE ur.id.role = :role")
+    List<Long> findUserIdsByRole(@Param("role") String role);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_role (user_id, role) VALUES (:userId, :role) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void addRole(@Param("userId") Long userId, @Param("role") String role);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserRole ur WHERE ur.id.userId = :userId AND ur.id.role = :role")
+    void removeRole(@Param("userId") Long userId, @Param("role") String role);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_role (user_id, role) SELECT unnest(:userIds), :role ON CONFLICT DO NOTHING", nativeQuery = true)
+    void addRoleToUsers(@Param("role") String role, @Param("userIds") Long[] userIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_role WHERE role = :role AND user_id = ANY(:userIds)", nativeQuery = true)
+    void removeRoleFromUsers(@Param("role") String role, @Param("userIds") Long[] userIds);
+}
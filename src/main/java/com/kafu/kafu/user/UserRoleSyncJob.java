@@ -0,0 +1,82 @@
+package com.kafu.kafu.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.ClientResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Periodically reconciles the local {@code user_role} table with Keycloak, catching role
+ * changes made directly in the Keycloak console. Members are pulled a page at a time.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserRoleSyncJob {
+    private final Keycloak keycloak;
+    private final KeycloakRoleCache keycloakRoleCache;
+    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+
+    @Value("${keycloak.realm}")
+    private String realm;
+
+    @Value("${keycloak.admin.sync-page-size}")
+    private int pageSize;
+
+    @Scheduled(fixedDelayString = "${keycloak.admin.role-sync-interval}", initialDelayString = "${keycloak.admin.role-sync-interval}")
+    public void reconcile() {
+        ClientResource client = keycloak.realm(realm).clients()
+                .get(keycloakRoleCache.getClientUuid(UserService.ROLE_CLIENTS.get(0)));
+        for (RoleRepresentation role : client.roles().list()) {
+            try {
+                reconcileRole(client, role.getName());
+            } catch (Exception e) {
+                log.warn("Could not reconcile role {}", role.getName(), e);
+            }
+        }
+    }
+
+    private void reconcileRole(ClientResource client, String role) {
+        // ids are resolved page by page, so a large role never turns into one huge query
+        Set<Long> expected = new HashSet<>();
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = client.roles().get(role).getUserMembers(true, first, pageSize);
+            if (!page.isEmpty()) {
+                expected.addAll(userRepository.findIdsByKeycloakIdAny(
+                        page.stream().map(UserRepresentation::getId).toArray(String[]::new)));
+            }
+            first += pageSize;
+        } while (page.size() == pageSize);
+
+        Set<Long> current = new HashSet<>(userRoleRepository.findUserIdsByRole(role));
+
+        List<Long> stale = new ArrayList<>(current);
+        stale.removeAll(expected);
+        if (!stale.isEmpty()) {
+            userRoleRepository.removeRoleFromUsers(role, stale.toArray(Long[]::new));
+        }
+
+        List<Long> missing = expected.stream()
+                .filter(userId -> !current.contains(userId))
+                .toList();
+        if (!missing.isEmpty()) {
+            userRoleRepository.addRoleToUsers(role, missing.toArray(Long[]::new));
+        }
+
+        if (!stale.isEmpty() || !missing.isEmpty()) {
+            log.info("Reconciled role {}: {} added, {} removed", role, missing.size(), stale.size());
+        }
+    }
+}
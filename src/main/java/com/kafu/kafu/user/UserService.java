@@ -1,6 +1,7 @@
 package com.kafu.kafu.user;
 
 import com.kafu.kafu.address.AddressService;
+import com.kafu.kafu.common.MultiGetResponse;
 import com.kafu.kafu.exception.ApplicationErrorEnum;
 import com.kafu.kafu.exception.BusinessException;
 import com.kafu.kafu.gov.Gov;
@@ -10,18 +11,29 @@ import lombok.RequiredArgsConstructor;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.admin.client.resource.UserResource;
-import org.keycloak.admin.client.resource.RealmResource;
-import org.keycloak.admin.client.resource.UsersResource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,10 +43,21 @@ public class UserService {
     private final GovService govService;
     private final Keycloak keycloak;
     private final S3Service s3Service;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentUserHolder currentUserHolder;
+    private final KeycloakRoleCache keycloakRoleCache;
+    private final UserRoleRepository userRoleRepository;
+    private final UserProvisioningRepository userProvisioningRepository;
+    private final UserDeletionTaskRepository userDeletionTaskRepository;
+
+    static final List<String> ROLE_CLIENTS = List.of("spring-client", "react-client");
 
     @Value("${keycloak.realm}")
     private String realm;
 
+    @Value("${keycloak.admin.parallelism}")
+    private int adminParallelism;
+
     public User findById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.USER_NOT_FOUND));
@@ -72,6 +95,15 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Ensures a local row exists for the token's user and returns its snapshot, without the
+     * exists-checks of {@link #create(UserDTO)} and without racing concurrent first requests.
+     * Empty when the user was deleted or their email belongs to another account.
+     */
+    public Optional<UserSnapshot> provision(UserDTO userDTO) {
+        return userProvisioningRepository.upsertAndGet(userDTO);
+    }
+
     @Transactional
     public User update(Long id, UserDTO userDTO) {
         User user = userRepository.findById(id)
@@ -93,6 +125,9 @@ public class UserService {
         ) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Keycloak ID is wrong");
         }
+        if (userDTO.getEmail() != null && !userDTO.getEmail().equals(user.getEmail())) {
+            eventPublisher.publishEvent(new UserIdentityChangedEvent(user.getKeycloakId()));
+        }
         UserMapper.updateEntity(user, userDTO);
 
         // Update gov if provided
@@ -107,23 +142,38 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Soft-deletes the user and queues the Keycloak logout/removal in the outbox, so the
+     * transaction never waits on Keycloak. {@link UserDeletionWorker} performs the remote side.
+     */
     @Transactional
     public void delete(Long id) {
         User user =
         userRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.USER_NOT_FOUND));
-        String keycloakId = user.getKeycloakId();
+        softDelete(user);
+    }
 
-        try {
-            var userResource = keycloak.realm(realm).users().get(keycloakId);
-            if (userResource != null) {
-                userResource.logout();
-                userResource.remove();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("User could not be deleted");
+    @Transactional
+    public void deleteAll(List<Long> ids) {
+        List<User> users = userRepository.findAllById(ids);
+        if (users.size() != new HashSet<>(ids).size()) {
+            throw new BusinessException(ApplicationErrorEnum.USER_NOT_FOUND);
         }
+        users.forEach(this::softDelete);
+    }
 
+    private void softDelete(User user) {
+        String keycloakId = user.getKeycloakId();
+
+        UserDeletionTask task = new UserDeletionTask();
+        task.setUserId(user.getId());
+        task.setKeycloakId(keycloakId);
+        task.setCreatedAt(LocalDateTime.now());
+        task.setNextAttemptAt(task.getCreatedAt());
+        userDeletionTaskRepository.save(task);
+
+        eventPublisher.publishEvent(new UserIdentityChangedEvent(keycloakId));
         user.setDeleted(true);
         user.setEmail("deleted_" + user.getEmail());
         user.setKeycloakId("deleted_" + user.getKeycloakId());
@@ -142,8 +192,28 @@ public class UserService {
                 .orElseThrow(() -> new BusinessException(ApplicationErrorEnum.USER_NOT_FOUND));
     }
 
+    /**
+     * Returns the authenticated caller, memoized per request through {@link CurrentUserHolder}.
+     * Outside of a request (e.g. background jobs) the user is resolved from the security context every time.
+     */
     public User getCurrentUser()
     {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return loadCurrentUser(null);
+        }
+        User user = currentUserHolder.getUser();
+        if (user == null) {
+            user = loadCurrentUser(currentUserHolder.getUserId());
+            currentUserHolder.setUser(user);
+        }
+        return user;
+    }
+
+    private User loadCurrentUser(Long userId)
+    {
+        if (userId != null) {
+            return findById(userId);
+        }
         String keycloakId = getKeycloakIdFromSecurityContext();
         if (keycloakId == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "No authenticated user");
@@ -185,34 +255,7 @@ public class UserService {
      */
     public void addUserRoleIfNotExistsByUserId(Long userId, String newRole) {
         User user = findById(userId);
-        String keycloakUserId = user.getKeycloakId();
-
-        RealmResource realmResource = keycloak.realm(realm);
-        UsersResource usersResource = realmResource.users();
-        UserResource userResource = usersResource.get(keycloakUserId);
-
-        for (String clientId : List.of("spring-client", "react-client")) {
-            var clients = realmResource.clients().findByClientId(clientId);
-            if (clients.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Keycloak client '" + clientId + "' does not exist in realm: " + realm);
-            }
-            String clientUuid = clients.get(0).getId();
-
-            // Get current client roles
-            List<RoleRepresentation> currentRoles = userResource.roles().clientLevel(clientUuid).listAll();
-            boolean hasRole = currentRoles.stream().anyMatch(r -> r.getName().equals(newRole));
-            if (!hasRole) {
-                // Assign the new role
-                try {
-                    RoleRepresentation role = realmResource.clients().get(clientUuid)
-                            .roles().get(newRole).toRepresentation();
-                    userResource.roles().clientLevel(clientUuid).add(List.of(role));
-                } catch (Exception e) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role '" + newRole + "' does not exist in Keycloak client: " + clientId);
-                }
-            }
-        }
+        applyClientRole(user, newRole, true);
     }
 
     /**
@@ -223,38 +266,104 @@ public class UserService {
      */
     public void removeUserRoleByUserId(Long userId, String role) {
         User user = findById(userId);
-        String keycloakUserId = user.getKeycloakId();
+        applyClientRole(user, role, false);
+    }
 
-        RealmResource realmResource = keycloak.realm(realm);
-        UsersResource usersResource = realmResource.users();
-        UserResource userResource = usersResource.get(keycloakUserId);
+    /**
+     * Assign or revoke a role for many users at once. Users are loaded in one query and the
+     * Keycloak calls fan out on virtual threads, at most {@code keycloak.admin.parallelism} at a time.
+     * @return one result per requested user ID, in request order
+     */
+    public List<BulkRoleResultDTO> updateRoleForUsers(List<Long> userIds, String role, boolean add) {
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        // Resolve client UUIDs and the role once up front so a bad role fails fast instead of per user
+        for (String clientId : ROLE_CLIENTS) {
+            keycloakRoleCache.getClientRole(clientId, role);
+        }
 
-        for (String clientId : List.of("spring-client", "react-client")) {
-            var clients = realmResource.clients().findByClientId(clientId);
-            if (clients.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Keycloak client '" + clientId + "' does not exist in realm: " + realm);
+        Semaphore permits = new Semaphore(adminParallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<BulkRoleResultDTO>> futures = userIds.stream()
+                    .map(userId -> executor.submit(() -> {
+                        User user = users.get(userId);
+                        if (user == null) {
+                            return new BulkRoleResultDTO(userId, false, ApplicationErrorEnum.USER_NOT_FOUND.getMessage());
+                        }
+                        permits.acquire();
+                        try {
+                            applyClientRole(user, role, add);
+                            return new BulkRoleResultDTO(userId, true, null);
+                        } catch (Exception e) {
+                            String reason = e instanceof ResponseStatusException rse ? rse.getReason() : e.getMessage();
+                            return new BulkRoleResultDTO(userId, false, reason);
+                        } finally {
+                            permits.release();
+                        }
+                    }))
+                    .toList();
+
+            List<BulkRoleResultDTO> results = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Role update interrupted");
+                } catch (ExecutionException e) {
+                    results.add(new BulkRoleResultDTO(userIds.get(i), false, e.getCause().getMessage()));
+                }
             }
-            String clientUuid = clients.get(0).getId();
+            return results;
+        }
+    }
+
+    private void applyClientRole(User user, String role, boolean add) {
+        UserResource userResource = keycloak.realm(realm).users().get(user.getKeycloakId());
+
+        for (String clientId : ROLE_CLIENTS) {
+            String clientUuid = keycloakRoleCache.getClientUuid(clientId);
 
             // Get current client roles
             List<RoleRepresentation> currentRoles = userResource.roles().clientLevel(clientUuid).listAll();
             boolean hasRole = currentRoles.stream().anyMatch(r -> r.getName().equals(role));
-            if (hasRole) {
-                // Remove the role
-                try {
-                    RoleRepresentation roleToRemove = realmResource.clients().get(clientUuid)
-                            .roles().get(role).toRepresentation();
-                    userResource.roles().clientLevel(clientUuid).remove(List.of(roleToRemove));
-                } catch (Exception e) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role '" + role + "' does not exist in Keycloak client: " + clientId);
+            if (add == hasRole) {
+                continue;
+            }
+            RoleRepresentation clientRole = keycloakRoleCache.getClientRole(clientId, role);
+            try {
+                if (add) {
+                    userResource.roles().clientLevel(clientUuid).add(List.of(clientRole));
+                } else {
+                    userResource.roles().clientLevel(clientUuid).remove(List.of(clientRole));
                 }
+            } catch (Exception e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Role '" + role + "' does not exist in Keycloak client: " + clientId);
             }
         }
+
+        // Keep the local mirror in step with Keycloak
+        if (add) {
+            userRoleRepository.addRole(user.getId(), role);
+        } else {
+            userRoleRepository.removeRole(user.getId(), role);
+        }
+    }
+
+    public List<String> findRolesByUserId(Long userId) {
+        return userRoleRepository.findRolesByUserId(userId);
     }
 
-    public List<UserDTO> findAll() {
-        return userRepository.findAll().stream()
+    public List<User> findAllByIds(List<Long> ids) {
+        return userRepository.findAllByIdAny(MultiGetResponse.distinctIds(ids));
+    }
+
+    /**
+     * @param role optional role filter, served from the local {@code user_role} mirror
+     */
+    public List<UserDTO> findAll(String role) {
+        List<User> users = role == null ? userRepository.findAll() : userRepository.findAllByRole(role);
+        return users.stream()
             .map(this::replaceUrlsWithPresigned)
             .map(UserMapper::toDTO)
             .toList();
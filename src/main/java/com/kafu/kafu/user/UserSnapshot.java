@@ -0,0 +1,20 @@
+package com.kafu.kafu.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Minimal view of a local user, enough to identify the caller of a request
+ * without loading the full {@link User} row.
+ */
+@Data
+@AllArgsConstructor
+public class UserSnapshot {
+    private Long id;
+    private String keycloakId;
+    private String email;
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getKeycloakId(), user.getEmail());
+    }
+}
@@ -0,0 +1,51 @@
+package com.kafu.kafu.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-evicting cache from Keycloak {@code sub} to the local user snapshot.
+ * Hit/miss counters are published under the {@code cache.*} meters with {@code cache=userSnapshot}.
+ */
+@Component
+public class UserSnapshotCache {
+    private final Cache<String, UserSnapshot> cache;
+
+    public UserSnapshotCache(MeterRegistry meterRegistry,
+                             @Value("${user.cache.max-size}") long maxSize,
+                             @Value("${user.cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userSnapshot");
+    }
+
+    public Optional<UserSnapshot> get(String keycloakId) {
+        return Optional.ofNullable(cache.getIfPresent(keycloakId));
+    }
+
+    public void put(UserSnapshot snapshot) {
+        cache.put(snapshot.getKeycloakId(), snapshot);
+    }
+
+    public void evict(String keycloakId) {
+        if (keycloakId != null) {
+            cache.invalidate(keycloakId);
+        }
+    }
+
+    // after commit, so a concurrent read cannot put the old row back before the change is visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIdentityChanged(UserIdentityChangedEvent event) {
+        evict(event.getKeycloakId());
+    }
+}
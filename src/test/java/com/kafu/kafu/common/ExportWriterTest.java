@@ -0,0 +1,68 @@
+package com.kafu.kafu.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportWriterTest {
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_BUFFERED_BYTES = 128 * 1024;
+
+    @Test
+    void streamsOneMillionRowsWithBoundedBuffering() throws Exception {
+        CountingOutputStream output = new CountingOutputStream();
+        long[] producedBytes = {"id,title\r\n".length()};
+        long[] maxLag = {0};
+
+        ExportWriter<Long> writer = new ExportWriter<>(new ObjectMapper(), ExportFormat.CSV, List.of("id", "title"),
+                id -> List.of(id, "problem " + id));
+        long written = writer.write(LongStream.rangeClosed(1, ROWS).boxed().peek(id -> {
+            // everything produced before this row must already be on its way to the client
+            maxLag[0] = Math.max(maxLag[0], producedBytes[0] - output.count);
+            producedBytes[0] += String.valueOf(id).length() * 2L + ",problem \r\n".length();
+        }), output);
+
+        assertEquals(ROWS, written);
+        assertEquals(producedBytes[0], output.count);
+        assertTrue(maxLag[0] <= MAX_BUFFERED_BYTES, "buffered " + maxLag[0] + " bytes");
+    }
+
+    @Test
+    void writesNdjsonLines() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ExportWriter<List<String>>(new ObjectMapper(), ExportFormat.NDJSON, List.of(), row -> row)
+                .write(java.util.stream.Stream.of(List.of("a"), List.of("b")), output);
+
+        assertEquals("[\"a\"]\n[\"b\"]\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void quotesCsvFieldsThatNeedIt() {
+        assertEquals("plain", ExportWriter.escapeCsv("plain"));
+        assertEquals("\"a,b\"", ExportWriter.escapeCsv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", ExportWriter.escapeCsv("say \"hi\""));
+        assertEquals("\"line\nbreak\"", ExportWriter.escapeCsv("line\nbreak"));
+        assertEquals("", ExportWriter.escapeCsv(null));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
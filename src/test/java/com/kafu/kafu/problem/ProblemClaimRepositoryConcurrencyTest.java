@@ -0,0 +1,124 @@
+package com.kafu.kafu.problem;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Races moderators claiming the same pending problems against the local database the application
+ * uses ({@code postgres/init/01-init.sql}); skipped when it is not reachable.
+ */
+class ProblemClaimRepositoryConcurrencyTest {
+    private static final int MODERATORS = 8;
+    private static final int PROBLEMS = 40;
+    private static final int CLAIM_COUNT = 10;
+    private static final int ROUNDS = 25;
+
+    private static JdbcTemplate jdbcTemplate;
+    private static ProblemClaimRepository repository;
+    private static Long govId;
+    private static Long categoryId;
+    private static Long addressId;
+    private static final List<Long> userIds = new ArrayList<>();
+    private static final List<Long> problemIds = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/kafu", "user", "password");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.queryForList("SELECT 1 FROM problem_moderation_claim LIMIT 1");
+        } catch (Exception e) {
+            Assumptions.abort("No kafu database on localhost:5432: " + e.getMessage());
+        }
+        repository = new ProblemClaimRepository(jdbcTemplate);
+
+        String tag = "claim-test-" + System.nanoTime();
+        govId = jdbcTemplate.queryForObject(
+                "INSERT INTO gov (id, name, email) VALUES (nextval('gov_seq'), ?, ?) RETURNING id",
+                Long.class, tag, tag + "@test");
+        categoryId = jdbcTemplate.queryForObject(
+                "INSERT INTO problem_category (id, name, gov_id) VALUES (nextval('problem_category_seq'), ?, ?) RETURNING id",
+                Long.class, "claim-test", govId);
+        addressId = jdbcTemplate.queryForObject(
+                "INSERT INTO address (id, latitude, longitude, description, city) VALUES (nextval('address_seq'), 0, 0, ?, ?) RETURNING id",
+                Long.class, tag, "test");
+        for (int i = 0; i <= MODERATORS; i++) {
+            userIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO users (id, first_name, last_name, email, deleted) VALUES (nextval('users_seq'), 'claim', 'test', ?, false) RETURNING id",
+                    Long.class, tag + "-" + i + "@test"));
+        }
+        // older than anything real, so these are the first candidates of every claim
+        for (int i = 0; i < PROBLEMS; i++) {
+            problemIds.add(jdbcTemplate.queryForObject("""
+                    INSERT INTO problem (id, title, description, submission_date, submitted_by_user_id, address_id, category_id, status)
+                    VALUES (nextval('problem_seq'), 'claim test', 'claim test', timestamp '2000-01-01' + ? * interval '1 second', ?, ?, ?, 'PENDING_APPROVAL')
+                    RETURNING id
+                    """, Long.class, i, userIds.get(0), addressId, categoryId));
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (repository == null) {
+            return;
+        }
+        Long[] problems = problemIds.toArray(Long[]::new);
+        jdbcTemplate.update("DELETE FROM problem_moderation_claim WHERE problem_id = ANY(?)", (Object) problems);
+        jdbcTemplate.update("DELETE FROM problem WHERE id = ANY(?)", (Object) problems);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ANY(?)", (Object) userIds.toArray(Long[]::new));
+        jdbcTemplate.update("DELETE FROM address WHERE id = ?", addressId);
+        jdbcTemplate.update("DELETE FROM problem_category WHERE id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM gov WHERE id = ?", govId);
+    }
+
+    @Test
+    void concurrentClaimsNeverShareAProblem() throws Exception {
+        Long[] problems = problemIds.toArray(Long[]::new);
+        for (int round = 0; round < ROUNDS; round++) {
+            jdbcTemplate.update("DELETE FROM problem_moderation_claim WHERE problem_id = ANY(?)", (Object) problems);
+
+            CountDownLatch start = new CountDownLatch(1);
+            Map<Long, Long> holders = new HashMap<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(MODERATORS)) {
+                List<Future<List<Long>>> claims = new ArrayList<>();
+                for (int m = 1; m <= MODERATORS; m++) {
+                    Long moderatorId = userIds.get(m);
+                    claims.add(executor.submit(() -> {
+                        start.await();
+                        return repository.claim(moderatorId, CLAIM_COUNT, Duration.ofMinutes(10));
+                    }));
+                }
+                start.countDown();
+                for (int m = 0; m < MODERATORS; m++) {
+                    Long moderatorId = userIds.get(m + 1);
+                    for (Long problemId : claims.get(m).get()) {
+                        assertNull(holders.put(problemId, moderatorId),
+                                "problem " + problemId + " handed to two moderators in round " + round);
+                    }
+                }
+            }
+
+            // what each caller was told it holds is what the claim table says
+            for (Map.Entry<Long, Long> held : holders.entrySet()) {
+                assertEquals(held.getValue(), jdbcTemplate.queryForObject(
+                        "SELECT moderator_id FROM problem_moderation_claim WHERE problem_id = ?", Long.class, held.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.kafu.kafu.security;
+
+import com.kafu.kafu.user.UserDTO;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request auth overhead: decode + convert + sync-filter user lookup for one bearer token.
+ * {@code uncached} is the old pipeline (verify, rebuild authorities and re-parse the header on
+ * every request); {@code cached} goes through {@link DecodedTokenCache}.
+ * <p>
+ * Run with {@code ./mvnw test-compile} and then the {@link #main} method of this class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+    private static final String RESOURCE_ID = "kafu-client";
+
+    private String token;
+    private JwtDecoder uncachedDecoder;
+    private JwtAuthConverter uncachedConverter;
+    private JwtDecoder cachedDecoder;
+    private JwtAuthConverter cachedConverter;
+    private DecodedTokenCache cache;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(UUID.randomUUID().toString())
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .claim("email", "bench@example.com")
+                .claim("given_name", "Bench")
+                .claim("family_name", "User")
+                .claim("scope", "openid profile email")
+                .claim("resource_access", Map.of(RESOURCE_ID, Map.of("roles", List.of("user", "analyst", "gov"))))
+                .build();
+        SignedJWT signedJwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        signedJwt.sign(new RSASSASigner(keyPair.getPrivate()));
+        token = signedJwt.serialize();
+
+        JwtDecoder verifier = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+
+        // a zero-size cache computes every value and keeps none, i.e. the pre-cache behaviour
+        DecodedTokenCache noCache = new DecodedTokenCache(new SimpleMeterRegistry(), 0);
+        uncachedDecoder = verifier;
+        uncachedConverter = converter(noCache);
+
+        cache = new DecodedTokenCache(new SimpleMeterRegistry(), 10_000);
+        cachedDecoder = new CachingJwtDecoder(verifier, cache);
+        cachedConverter = converter(cache);
+    }
+
+    @Benchmark
+    public void uncached(Blackhole blackhole) throws Exception {
+        Jwt jwt = uncachedDecoder.decode(token);
+        blackhole.consume(uncachedConverter.convert(jwt));
+        // the sync filter used to parse the raw header again
+        JWTClaimsSet claims = SignedJWT.parse(token).getJWTClaimsSet();
+        UserDTO user = new UserDTO();
+        user.setEmail(claims.getStringClaim("email"));
+        user.setKeycloakId(claims.getSubject());
+        user.setFirstName(claims.getStringClaim("given_name"));
+        user.setLastName(claims.getStringClaim("family_name"));
+        blackhole.consume(user);
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        Jwt jwt = cachedDecoder.decode(token);
+        AbstractAuthenticationToken authentication = cachedConverter.convert(jwt);
+        blackhole.consume(authentication);
+        blackhole.consume(cache.find(jwt.getTokenValue()).map(DecodedToken::getUser).orElseThrow());
+    }
+
+    private static JwtAuthConverter converter(DecodedTokenCache cache) {
+        JwtAuthConverter converter = new JwtAuthConverter(cache);
+        ReflectionTestUtils.setField(converter, "principleAttribute", "sub");
+        ReflectionTestUtils.setField(converter, "resourceId", RESOURCE_ID);
+        return converter;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}
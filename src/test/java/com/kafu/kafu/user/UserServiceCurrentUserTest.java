@@ -0,0 +1,193 @@
+package com.kafu.kafu.user;
+
+import com.kafu.kafu.address.AddressService;
+import com.kafu.kafu.donation.Donation;
+import com.kafu.kafu.donation.DonationIdempotencyRepository;
+import com.kafu.kafu.donation.DonationRepository;
+import com.kafu.kafu.donation.DonationService;
+import com.kafu.kafu.donation.DonationSession;
+import com.kafu.kafu.donation.DonationSessionCache;
+import com.kafu.kafu.donation.PaymentMediator;
+import com.kafu.kafu.donation.PaymentSessionRequest;
+import com.kafu.kafu.donation.PaymentSessionResponse;
+import com.kafu.kafu.donation.ProblemFundingService;
+import com.kafu.kafu.payment.PaymentMethod;
+import com.kafu.kafu.payment.PaymentService;
+import com.kafu.kafu.payment.WebhookInboxRepository;
+import com.kafu.kafu.problem.Problem;
+import com.kafu.kafu.problem.ProblemFeedCache;
+import com.kafu.kafu.problem.ProblemGeoRepository;
+import com.kafu.kafu.problem.ProblemGridRepository;
+import com.kafu.kafu.problem.ProblemRepository;
+import com.kafu.kafu.problem.ProblemSearchCache;
+import com.kafu.kafu.problem.ProblemService;
+import com.kafu.kafu.problem.ProblemStatus;
+import com.kafu.kafu.problem.ProblemSummaryRepository;
+import com.kafu.kafu.problem.dto.ProblemDTO;
+import com.kafu.kafu.problemcategory.ProblemCategoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceCurrentUserTest {
+    private static final Long USER_ID = 7L;
+    private static final Long PROBLEM_ID = 11L;
+
+    @Mock
+    private UserRepository userRepository;
+    @Spy
+    private CurrentUserHolder currentUserHolder = new CurrentUserHolder();
+    @InjectMocks
+    private UserService userService;
+
+    @Mock
+    private DonationRepository donationRepository;
+    @Mock
+    private DonationIdempotencyRepository donationIdempotencyRepository;
+    @Mock
+    private ProblemFundingService problemFundingService;
+    @Mock
+    private WebhookInboxRepository webhookInboxRepository;
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private ProblemRepository problemRepository;
+    @Mock
+    private ProblemSummaryRepository problemSummaryRepository;
+    @Mock
+    private ProblemGeoRepository problemGeoRepository;
+    @Mock
+    private ProblemGridRepository problemGridRepository;
+    @Mock
+    private AddressService addressService;
+    @Mock
+    private ProblemCategoryService problemCategoryService;
+    @Mock
+    private ProblemFeedCache problemFeedCache;
+    @Mock
+    private ProblemSearchCache problemSearchCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(USER_ID);
+        newRequest();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getCurrentUserSelectsOncePerRequest() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(user, userService.getCurrentUser());
+        }
+
+        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, never()).findByKeycloakId(anyString());
+    }
+
+    @Test
+    void donationPathSelectsTheUserOncePerRequest() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        ProblemService problemService = mock(ProblemService.class);
+        when(problemService.findById(PROBLEM_ID)).thenReturn(problem());
+        when(paymentService.createPaymentSession(any())).thenReturn(new PaymentSessionResponse("cs_1", "https://pay/cs_1"));
+        when(donationIdempotencyRepository.insertOrGetExisting(any(Donation.class)))
+                .thenReturn(new DonationSession(USER_ID, PROBLEM_ID, "cs_1", "https://pay/cs_1"));
+
+        Map<PaymentMethod, PaymentService> paymentServices = Map.of(PaymentMethod.STRIPE, paymentService);
+        DonationService donationService = new DonationService(donationRepository, userService, problemService,
+                paymentServices, problemFundingService, donationIdempotencyRepository,
+                new DonationSessionCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)));
+        PaymentMediator paymentMediator = new PaymentMediator(donationService, paymentServices, webhookInboxRepository);
+
+        // first attempt stores the donation, the client's retry is replayed from the session cache
+        assertEquals("cs_1", paymentMediator.initiateDonation(PROBLEM_ID, donationRequest()).getSessionId());
+        verify(userRepository, times(1)).findById(USER_ID);
+        newRequest();
+        assertEquals("cs_1", paymentMediator.initiateDonation(PROBLEM_ID, donationRequest()).getSessionId());
+
+        verify(userRepository, times(2)).findById(USER_ID);
+        verify(userRepository, never()).findByKeycloakId(anyString());
+        verify(paymentService, times(1)).createPaymentSession(any());
+    }
+
+    @Test
+    void problemPatchSelectsTheUserOncePerRequest() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        Problem problem = problem();
+        when(problemRepository.findById(PROBLEM_ID)).thenReturn(Optional.of(problem));
+        when(problemRepository.save(problem)).thenReturn(problem);
+        ProblemService problemService = new ProblemService(problemRepository, problemSummaryRepository,
+                problemGeoRepository, problemGridRepository, addressService, userService, problemCategoryService,
+                problemFeedCache, problemSearchCache, eventPublisher);
+
+        ProblemDTO approve = new ProblemDTO();
+        approve.setStatus(ProblemStatus.APPROVED);
+        problemService.patch(PROBLEM_ID, approve);
+        // the caller's problem listing in the same request reuses the loaded user
+        assertSame(user, problem.getApprovedByUser());
+        assertSame(user, userService.getCurrentUser());
+
+        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, never()).findByKeycloakId(anyString());
+    }
+
+    // what KeycloakUserSyncFilter leaves behind at the start of each request
+    private void newRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        currentUserHolder.setUser(null);
+        currentUserHolder.setUserId(USER_ID);
+    }
+
+    private static Problem problem() {
+        Problem problem = new Problem();
+        problem.setId(PROBLEM_ID);
+        problem.setStatus(ProblemStatus.PENDING_APPROVAL);
+        problem.setIsReal(true);
+        return problem;
+    }
+
+    private static PaymentSessionRequest donationRequest() {
+        PaymentSessionRequest request = new PaymentSessionRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("USD");
+        request.setPaymentMethod(PaymentMethod.STRIPE);
+        request.setIsAnonymous(false);
+        request.setSuccessUrl("https://kafu/success");
+        request.setCancelUrl("https://kafu/cancel");
+        request.setIdempotencyKey("donation-key-1");
+        return request;
+    }
+}